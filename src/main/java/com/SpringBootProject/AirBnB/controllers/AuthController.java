@@ -4,11 +4,13 @@ import com.SpringBootProject.AirBnB.dto.LoginDto;
 import com.SpringBootProject.AirBnB.dto.LoginResponseDto;
 import com.SpringBootProject.AirBnB.dto.SignUpRequestDto;
 import com.SpringBootProject.AirBnB.dto.UserDto;
+import com.SpringBootProject.AirBnB.exception.UnauthorisedException;
 import com.SpringBootProject.AirBnB.security.AuthService;
+import com.SpringBootProject.AirBnB.security.JWTService;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.boot.web.servlet.server.Session;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,12 +18,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Arrays;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 
 public class AuthController {
 
+    private static final String REFRESH_TOKEN_COOKIE = "refreshToken";
+
     private final AuthService authService;
 
     @PostMapping("/signup")
@@ -32,23 +38,40 @@ public class AuthController {
         }
 
     @PostMapping("/login")
-        public ResponseEntity<String[]> login (@RequestBody LoginDto LoginDto, HttpServletRequest
+        public ResponseEntity<LoginResponseDto> login (@RequestBody LoginDto LoginDto, HttpServletRequest
         request, HttpServletResponse response){
 
             String[] tokens = authService.login(LoginDto);
 
-            Session.Cookie cookie = new Session.Cookie("refreshToken", tokens[1]);
-            cookie.setHttpOnly(true);
-
-            httpServletResponse.addCookie(cookie);
+            response.addCookie(refreshTokenCookie(request, tokens[1]));
             return ResponseEntity.ok(new LoginResponseDto(tokens[0]));
 
+        }
+
+    // The refresh token is single use, the response carries a new access token and replaces the cookie
+    @PostMapping("/refresh")
+        public ResponseEntity<LoginResponseDto> refresh(HttpServletRequest request, HttpServletResponse response){
 
+            String refreshToken = Arrays.stream(request.getCookies() == null ? new Cookie[0] : request.getCookies())
+                    .filter(cookie -> REFRESH_TOKEN_COOKIE.equals(cookie.getName()))
+                    .findFirst()
+                    .map(Cookie::getValue)
+                    .orElseThrow(() -> new UnauthorisedException("Refresh token not found in cookies"));
 
+            String[] tokens = authService.refreshToken(refreshToken);
 
+            response.addCookie(refreshTokenCookie(request, tokens[1]));
+            return ResponseEntity.ok(new LoginResponseDto(tokens[0]));
         }
 
+    private static Cookie refreshTokenCookie(HttpServletRequest request, String refreshToken) {
+        Cookie cookie = new Cookie(REFRESH_TOKEN_COOKIE, refreshToken);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        // Only sent to the auth endpoints, never with ordinary API calls
+        cookie.setPath(request.getContextPath() + "/auth");
+        cookie.setMaxAge((int) JWTService.REFRESH_TOKEN_LIFETIME.toSeconds());
+        return cookie;
     }
 
-
-
+    }
@@ -4,6 +4,7 @@ package com.SpringBootProject.AirBnB.controllers;
 import com.SpringBootProject.AirBnB.dto.HotelDto;
 import com.SpringBootProject.AirBnB.dto.HotelInfoDto;
 import com.SpringBootProject.AirBnB.dto.HotelPriceDto;
+import com.SpringBootProject.AirBnB.dto.HotelSearchPageDto;
 import com.SpringBootProject.AirBnB.dto.HotelSearchRequest;
 import com.SpringBootProject.AirBnB.service.HotelService;
 import com.SpringBootProject.AirBnB.service.InventoryService;
@@ -36,6 +37,15 @@ public class HotelBrowseController {
 
     }
 
+    // Cursor based alternative to /search, pass the nextCursor of the previous response to get the next page
+    @GetMapping("/search/cursor")
+    public ResponseEntity<HotelSearchPageDto> searchHotelsByCursor(@ModelAttribute HotelSearchRequest hotelSearchRequest)
+    {
+        return ResponseEntity
+                .status(200)
+                .body(inventoryService.searchHotelsByCursor(hotelSearchRequest));
+    }
+
     @GetMapping("/{hotelId}/info")
     public ResponseEntity<HotelInfoDto> getHotelInfo(@PathVariable Long  hotelId){
 
@@ -0,0 +1,54 @@
+package com.SpringBootProject.AirBnB.controllers;
+
+
+import com.SpringBootProject.AirBnB.dto.PriceSimulationRequest;
+import com.SpringBootProject.AirBnB.dto.SimulatedPriceDto;
+import com.SpringBootProject.AirBnB.service.PriceSimulationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/admin/hotels/{hotelId}/price-simulations")
+@RequiredArgsConstructor
+@Slf4j
+public class PriceSimulationController {
+
+    private final PriceSimulationService priceSimulationService;
+    private final ObjectMapper objectMapper;
+
+    // Read only preview, one JSON line per room and night
+    @PostMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> simulatePrices(@PathVariable Long hotelId,
+                                                                @RequestBody PriceSimulationRequest request){
+
+        log.info("PriceSimulationController simulatePrices for hotel: {}", hotelId);
+        PriceSimulationService.PriceSimulation simulation = priceSimulationService.prepare(hotelId, request);
+
+        StreamingResponseBody body = outputStream -> priceSimulationService.stream(simulation, prices -> {
+            // Rooms finish on different threads, a room's lines are written together
+            synchronized (outputStream) {
+                try {
+                    for (SimulatedPriceDto price : prices) {
+                        outputStream.write(objectMapper.writeValueAsBytes(price));
+                        outputStream.write('\n');
+                    }
+                    outputStream.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
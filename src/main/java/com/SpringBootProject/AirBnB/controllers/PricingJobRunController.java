@@ -0,0 +1,32 @@
+package com.SpringBootProject.AirBnB.controllers;
+
+
+import com.SpringBootProject.AirBnB.dto.PricingJobRunDto;
+import com.SpringBootProject.AirBnB.service.PricingJobRunService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/pricing/runs")
+@RequiredArgsConstructor
+@Slf4j
+public class PricingJobRunController {
+
+    private final PricingJobRunService pricingJobRunService;
+
+    @GetMapping
+    public ResponseEntity<List<PricingJobRunDto>> getRecentRuns(@RequestParam(defaultValue = "20") int limit){
+
+        return ResponseEntity.ok(pricingJobRunService.getRecentRuns(Math.min(Math.max(limit, 1), 100)));
+    }
+
+    @GetMapping("/{runId}")
+    public ResponseEntity<PricingJobRunDto> getRunById(@PathVariable Long runId){
+
+        return ResponseEntity.ok(pricingJobRunService.getRunById(runId));
+    }
+}
@@ -1,6 +1,5 @@
 package com.SpringBootProject.AirBnB.dto;
 
-import com.SpringBootProject.AirBnB.entity.Hotel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,8 +12,11 @@ import lombok.NoArgsConstructor;
 
 public class HotelPriceDto {
 
-
-    private Hotel hotel;
+    //Flat search row built directly by the search query, no Hotel entity so nothing lazy gets serialized
+    private Long hotelId;
+    private String name;
+    private String city;
+    private String thumbnail; //First photo of the hotel
     private Double price;
 
 }
@@ -0,0 +1,18 @@
+package com.SpringBootProject.AirBnB.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelSearchPageDto {
+
+    private List<HotelPriceDto> content;
+
+    private String nextCursor; //null when this is the last page
+
+}
@@ -17,5 +17,7 @@ public class HotelSearchRequest {
     private Integer page =0 ;
     private Integer size = 10;
 
+    private String cursor; //Only used by the cursor search, opaque value returned as nextCursor of the previous page
+
 
 }
@@ -0,0 +1,20 @@
+package com.SpringBootProject.AirBnB.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+public class PriceSimulationRequest {
+
+    private LocalDate startDate; //defaults to today
+    private LocalDate endDate; //defaults to a year after startDate
+
+    private Map<Long, BigDecimal> basePrices; //room id to the base price to try, other rooms keep theirs
+
+    private BigDecimal surgeFactor; //replaces the stored surge factor of every night
+    private Map<LocalDate, BigDecimal> surgeFactors; //per night, wins over surgeFactor
+
+}
@@ -0,0 +1,31 @@
+package com.SpringBootProject.AirBnB.dto;
+
+import com.SpringBootProject.AirBnB.entity.enums.PricingJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingJobRunDto {
+
+    private Long id;
+    private String runKey;
+    private PricingJobStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int partitions;
+    private int partitionsCompleted;
+    private long hotelsTotal;
+    private long hotelsPriced;
+    private long inventoryRowsWritten;
+    private long inventoryRowsUnchanged;
+    private double hotelsPerSecond;
+    private double inventoryRowsPerSecond;
+    // Null once the run has finished or before the first hotel is priced
+    private LocalDateTime estimatedFinishAt;
+
+}
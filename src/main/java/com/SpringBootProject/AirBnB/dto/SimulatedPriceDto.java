@@ -0,0 +1,20 @@
+package com.SpringBootProject.AirBnB.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulatedPriceDto {
+
+    private Long roomId;
+    private LocalDate date;
+    private BigDecimal currentPrice;
+    private BigDecimal simulatedPrice;
+
+}
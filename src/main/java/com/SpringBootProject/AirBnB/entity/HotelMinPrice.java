@@ -10,6 +10,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "hotel_min_price",
+        uniqueConstraints = @UniqueConstraint(name = "unique_hotel_min_price_hotel_date", columnNames = {"hotel_id", "date"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,6 +32,9 @@ public class HotelMinPrice {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;  //CHeapest room i n a [articular day
 
+    @Column(precision = 14, scale = 2)
+    private BigDecimal cumulativePrice; //Sum of price from the first day up to this day, stay price = two lookups
+
 
 
 
@@ -18,7 +18,11 @@ import java.time.LocalDate;
                 name= "unique_hotel_room_date",
                 columnNames = {"hotel_id", "room_id", "date"}
 
-        )) //Later I will add indexes for this table as well
+        ),
+        indexes = {
+                @Index(name = "idx_inventory_room_date", columnList = "room_id, date"),
+                @Index(name = "idx_inventory_city_date_availability", columnList = "city, date")
+        }) //Partitioned by month on date, see V2__partitioned_inventory.sql and V3__search_covering_indexes.sql
 
 @Builder
 @AllArgsConstructor
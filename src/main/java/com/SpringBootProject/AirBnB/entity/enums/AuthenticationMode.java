@@ -0,0 +1,7 @@
+package com.SpringBootProject.AirBnB.entity.enums;
+
+public enum AuthenticationMode {
+
+    CLAIMS,
+    DATABASE
+}
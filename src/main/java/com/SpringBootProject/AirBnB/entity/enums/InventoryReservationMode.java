@@ -0,0 +1,7 @@
+package com.SpringBootProject.AirBnB.entity.enums;
+
+public enum InventoryReservationMode {
+
+    PESSIMISTIC_LOCK,
+    CONDITIONAL_UPDATE
+}
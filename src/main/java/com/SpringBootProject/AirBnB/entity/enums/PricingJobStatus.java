@@ -0,0 +1,8 @@
+package com.SpringBootProject.AirBnB.entity.enums;
+
+public enum PricingJobStatus {
+
+    RUNNING,
+    COMPLETED,
+    ABANDONED
+}
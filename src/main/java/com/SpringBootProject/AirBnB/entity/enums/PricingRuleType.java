@@ -0,0 +1,8 @@
+package com.SpringBootProject.AirBnB.entity.enums;
+
+public enum PricingRuleType {
+    SURGE,
+    URGENCY,
+    HOLIDAY,
+    OCCUPANCY
+}
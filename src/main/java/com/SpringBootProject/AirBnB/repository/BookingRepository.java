@@ -1,9 +1,58 @@
 package com.SpringBootProject.AirBnB.repository;
 
 import com.SpringBootProject.AirBnB.entity.Booking;
+import com.SpringBootProject.AirBnB.entity.enums.BookingStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long>{
+
+    // SKIP LOCKED lets a booking that is being updated by the user right now be picked up on the next run
+    @Query(value = """
+            SELECT b.id FROM booking b
+            WHERE b.booking_status IN ('RESERVED', 'GUESTS_ADDED')
+            AND b.created_at < :cutoff
+            ORDER BY b.created_at
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockExpiredBookingIds(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("batchSize") int batchSize
+    );
+
+    @Query("""
+            SELECT MIN(b.createdAt) FROM Booking b
+            WHERE b.bookingStatus IN :statuses
+            AND b.createdAt < :cutoff
+            """)
+    LocalDateTime findOldestCreatedAtBefore(
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("cutoff") LocalDateTime cutoff
+    );
+
+    @Query("SELECT DISTINCT b.hotel.city FROM Booking b WHERE b.id IN :bookingIds")
+    List<String> findDistinctHotelCities(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("SELECT DISTINCT b.room.id FROM Booking b WHERE b.id IN :bookingIds")
+    List<Long> findDistinctRoomIds(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Modifying
+    @Query("""
+            UPDATE Booking b
+            SET b.bookingStatus = :status, b.updatedAt = CURRENT_TIMESTAMP
+            WHERE b.id IN :bookingIds
+            """)
+    int updateBookingStatus(
+            @Param("bookingIds") Collection<Long> bookingIds,
+            @Param("status") BookingStatus status
+    );
 }
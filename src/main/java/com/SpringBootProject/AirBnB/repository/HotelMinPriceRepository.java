@@ -6,43 +6,151 @@ import com.SpringBootProject.AirBnB.entity.HotelMinPrice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.lang.ScopedValue;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 
 public interface HotelMinPriceRepository extends JpaRepository<HotelMinPrice, Long> {
 
+    // Single round trip: only hotels with a room free for roomsCount on every night, priced from their daily min prices.
+    // The stay price comes from the prefix sums of the first and last night, two index lookups per hotel whatever the stay length
     @Query("""
-    
-            SELECT NEW com.SpringBootProject.AirBnB.dto.HotelPriceDto(i.hotel, AVG(i.price)) FROM HotelMinPrice i
-            WHERE i.hotel.city = :city
-            AND i.date BETWEEN :startDate AND :endDate
-            AND i.hotel.active = true
-            GROUP BY i.hotel
+            SELECT NEW com.SpringBootProject.AirBnB.dto.HotelPriceDto(
+                h.id, h.name, h.city, array_get(h.photos, 1),
+                CAST((e.cumulativePrice - s.cumulativePrice + s.price) / :dateCount AS Double)
+            )
+            FROM Hotel h
+            JOIN HotelMinPrice s ON s.hotel.id = h.id AND s.date = :startDate
+            JOIN HotelMinPrice e ON e.hotel.id = h.id AND e.date = :endDate
+            WHERE h.city = :city
+            AND h.active = true
+            AND h.id IN (
+                SELECT a.hotel.id FROM Inventory a
+                WHERE a.city = :city
+                AND a.date BETWEEN :startDate AND :endDate
+                AND a.closed = false
+                AND (a.totalCount - a.bookedCount - a.reservedCount) >= :roomsCount
+                GROUP BY a.hotel.id, a.room.id
+                HAVING COUNT(a.date) = :dateCount
+            )
+            ORDER BY (e.cumulativePrice - s.cumulativePrice + s.price), h.id
+            """,
+            countQuery = """
+            SELECT COUNT(h) FROM Hotel h
+            JOIN HotelMinPrice s ON s.hotel.id = h.id AND s.date = :startDate
+            JOIN HotelMinPrice e ON e.hotel.id = h.id AND e.date = :endDate
+            WHERE h.city = :city
+            AND h.active = true
+            AND h.id IN (
+                SELECT a.hotel.id FROM Inventory a
+                WHERE a.city = :city
+                AND a.date BETWEEN :startDate AND :endDate
+                AND a.closed = false
+                AND (a.totalCount - a.bookedCount - a.reservedCount) >= :roomsCount
+                GROUP BY a.hotel.id, a.room.id
+                HAVING COUNT(a.date) = :dateCount
+            )
             """)
-                
-            
-
-           
-            
-               
-
     Page<HotelPriceDto> findHotelsWithAvailableInventory(
+            @Param("city") String city,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("roomsCount") Integer roomsCount,
+            @Param("dateCount") Long dateCount,
+            Pageable pageable
+    );
 
-
+    // Seek pagination: continues after the (price, hotel id) of the last row of the previous page, no OFFSET and no COUNT
+    @Query("""
+            SELECT NEW com.SpringBootProject.AirBnB.dto.HotelPriceDto(
+                h.id, h.name, h.city, array_get(h.photos, 1),
+                CAST((e.cumulativePrice - s.cumulativePrice + s.price) / :dateCount AS Double)
+            )
+            FROM Hotel h
+            JOIN HotelMinPrice s ON s.hotel.id = h.id AND s.date = :startDate
+            JOIN HotelMinPrice e ON e.hotel.id = h.id AND e.date = :endDate
+            WHERE h.city = :city
+            AND h.active = true
+            AND h.id IN (
+                SELECT a.hotel.id FROM Inventory a
+                WHERE a.city = :city
+                AND a.date BETWEEN :startDate AND :endDate
+                AND a.closed = false
+                AND (a.totalCount - a.bookedCount - a.reservedCount) >= :roomsCount
+                GROUP BY a.hotel.id, a.room.id
+                HAVING COUNT(a.date) = :dateCount
+            )
+            AND (CAST((e.cumulativePrice - s.cumulativePrice + s.price) / :dateCount AS Double) > :afterPrice
+                OR (CAST((e.cumulativePrice - s.cumulativePrice + s.price) / :dateCount AS Double) = :afterPrice
+                    AND h.id > :afterHotelId))
+            ORDER BY (e.cumulativePrice - s.cumulativePrice + s.price), h.id
+            """)
+    List<HotelPriceDto> findHotelsWithAvailableInventoryAfter(
             @Param("city") String city,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
             @Param("roomsCount") Integer roomsCount,
             @Param("dateCount") Long dateCount,
+            @Param("afterPrice") Double afterPrice,
+            @Param("afterHotelId") Long afterHotelId,
             Pageable pageable
+    );
+
+    // Daily min price of every room of the hotel straight from inventory, rows whose price did not change are left alone
+    @Modifying
+    @Query(value = """
+            INSERT INTO hotel_min_price (hotel_id, date, price, created_at, updated_at)
+            SELECT i.hotel_id, i.date, MIN(i.price), now(), now()
+            FROM inventory i
+            WHERE i.hotel_id = :hotelId
+            AND i.date BETWEEN :startDate AND :endDate
+            GROUP BY i.hotel_id, i.date
+            ON CONFLICT (hotel_id, date) DO UPDATE
+            SET price = EXCLUDED.price,
+                updated_at = EXCLUDED.updated_at
+            WHERE hotel_min_price.price IS DISTINCT FROM EXCLUDED.price
+            """, nativeQuery = true)
+    int upsertDailyMinPrices(
+            @Param("hotelId") Long hotelId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Held until the caller's transaction ends. Refreshes of one hotel run one after the other, so each running
+    // total is computed from a snapshot that already holds the previous refresh's prices
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:hotelId)", nativeQuery = true)
+    Integer lockHotelMinPrices(@Param("hotelId") Long hotelId);
 
+    // Rebuilds the running total of min prices from fromDate onwards, continuing from the total of the day before.
+    // Callers hold lockHotelMinPrices
+    @Modifying
+    @Query(value = """
+            UPDATE hotel_min_price p
+            SET cumulative_price = running.cumulative_price
+            FROM (
+                SELECT m.id,
+                       SUM(m.price) OVER (ORDER BY m.date)
+                           + COALESCE((SELECT prev.cumulative_price FROM hotel_min_price prev
+                                       WHERE prev.hotel_id = :hotelId
+                                       AND prev.date = CAST(:fromDate AS date) - 1), 0) AS cumulative_price
+                FROM hotel_min_price m
+                WHERE m.hotel_id = :hotelId
+                AND m.date >= :fromDate
+            ) AS running
+            WHERE p.id = running.id
+            AND p.cumulative_price IS DISTINCT FROM running.cumulative_price
+            """, nativeQuery = true)
+    int refreshCumulativePrices(
+            @Param("hotelId") Long hotelId,
+            @Param("fromDate") LocalDate fromDate
     );
 
     Optional<HotelMinPrice> findByHotelAndDate(Hotel hotel, LocalDate date);
@@ -0,0 +1,70 @@
+package com.SpringBootProject.AirBnB.repository;
+
+import com.SpringBootProject.AirBnB.dto.HotelPriceDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Prices of hotels whose availability was already checked by RoomAvailabilityIndex. The candidate ids are bound
+ * as one bigint[] and matched with = ANY, so the SQL text is the same whatever the number of candidates and a
+ * large city never runs into the bind parameter limit of an IN list. Same prices and order as
+ * HotelMinPriceRepository.findHotelsWithAvailableInventory.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HotelPriceQueries {
+
+    private static final String FROM_CANDIDATES = """
+            FROM hotel h
+            JOIN hotel_min_price s ON s.hotel_id = h.id AND s.date = ?
+            JOIN hotel_min_price e ON e.hotel_id = h.id AND e.date = ?
+            WHERE h.id = ANY(CAST(? AS bigint[]))
+            AND h.active = true
+            """;
+
+    private static final String STAY_PRICE = "CAST((e.cumulative_price - s.cumulative_price + s.price) / ? AS double precision)";
+
+    private static final String SELECT_PRICES = "SELECT h.id, h.name, h.city, h.photos[1] AS thumbnail, "
+            + STAY_PRICE + " AS price " + FROM_CANDIDATES;
+
+    private static final String ORDER_BY = " ORDER BY (e.cumulative_price - s.cumulative_price + s.price), h.id LIMIT ?";
+
+    private static final RowMapper<HotelPriceDto> HOTEL_PRICE_MAPPER = (rs, rowNum) -> new HotelPriceDto(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("city"),
+            rs.getString("thumbnail"),
+            rs.getDouble("price"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Page<HotelPriceDto> findPricesForHotels(Collection<Long> hotelIds, LocalDate startDate, LocalDate endDate,
+                                                   long dateCount, Pageable pageable) {
+        Long[] ids = hotelIds.toArray(Long[]::new);
+        List<HotelPriceDto> content = jdbcTemplate.query(SELECT_PRICES + ORDER_BY + " OFFSET ?", HOTEL_PRICE_MAPPER,
+                dateCount, startDate, endDate, ids, pageable.getPageSize(), pageable.getOffset());
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) " + FROM_CANDIDATES, Long.class,
+                startDate, endDate, ids);
+        return new PageImpl<>(content, pageable, total == null ? 0 : total);
+    }
+
+    // Keyset page after (afterPrice, afterHotelId) in the search order
+    public List<HotelPriceDto> findPricesForHotelsAfter(Collection<Long> hotelIds, LocalDate startDate,
+                                                        LocalDate endDate, long dateCount, double afterPrice,
+                                                        long afterHotelId, int limit) {
+        return jdbcTemplate.query(SELECT_PRICES
+                        + " AND (" + STAY_PRICE + " > ? OR (" + STAY_PRICE + " = ? AND h.id > ?))"
+                        + ORDER_BY, HOTEL_PRICE_MAPPER,
+                dateCount, startDate, endDate, hotelIds.toArray(Long[]::new),
+                dateCount, afterPrice, dateCount, afterPrice, afterHotelId, limit);
+    }
+}
@@ -3,14 +3,23 @@ package com.SpringBootProject.AirBnB.repository;
 
 import com.SpringBootProject.AirBnB.entity.Hotel;
 import org.apache.logging.log4j.simple.internal.SimpleProvider;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.net.InterfaceAddress;
+import java.util.List;
 
 @Repository
 public interface HotelRepository  extends JpaRepository<Hotel, Long> {
 
+    @Query("SELECT MAX(h.id) FROM Hotel h")
+    Long findMaxId();
 
+    // Keyset page of the hotels with afterId < id <= toId
+    @Query("SELECT h FROM Hotel h WHERE h.id > :afterId AND h.id <= :toId ORDER BY h.id")
+    List<Hotel> findIdRangeAfter(@Param("afterId") long afterId, @Param("toId") long toId, Pageable pageable);
 
 }
@@ -4,15 +4,21 @@ import com.SpringBootProject.AirBnB.entity.Hotel;
 import com.SpringBootProject.AirBnB.entity.Inventory;
 import com.SpringBootProject.AirBnB.entity.Room;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -67,7 +73,106 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
             @Param("roomsCount") Integer roomsCount
     );
 
-    List<Inventory> findByHotelDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate);
+    // Reserves every night of the stay without taking row locks up front, a night without enough free rooms is simply not updated
+    @Modifying
+    @Query("""
+            UPDATE Inventory i
+            SET i.reservedCount = i.reservedCount + :roomsCount
+            WHERE i.room.id = :roomId
+            AND i.date BETWEEN :startDate AND :endDate
+            AND i.closed = false
+            AND (i.totalCount - i.bookedCount - i.reservedCount) >= :roomsCount
+            """)
+    int reserveAvailableInventory(
+            @Param("roomId") Long roomId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("roomsCount") Integer roomsCount
+    );
+
+    // Read only so the pricing job can set new prices without Hibernate dirty checking and flushing every row
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+            SELECT i FROM Inventory i JOIN FETCH i.room
+            WHERE i.hotel = :hotel
+            AND i.date BETWEEN :startDate AND :endDate
+            """)
+    List<Inventory> findByHotelAndDateBetween(@Param("hotel") Hotel hotel,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+            SELECT i FROM Inventory i JOIN FETCH i.room
+            WHERE i.room.id IN :roomIds
+            AND i.date BETWEEN :startDate AND :endDate
+            """)
+    List<Inventory> findByRoomIdsAndDateBetween(@Param("roomIds") Collection<Long> roomIds,
+                                                @Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate);
+
+    // Generates one inventory row per day for the room in a single statement instead of one INSERT per day
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory (hotel_id, room_id, date, booked_count, reserved_count, total_count,
+                                   surge_factor, price, city, closed, created_at, updated_at)
+            SELECT :hotelId, :roomId, CAST(d AS date), 0, 0, :totalCount,
+                   1, :price, :city, false, CURRENT_DATE, CURRENT_DATE
+            FROM generate_series(CAST(:startDate AS date), CAST(:endDate AS date), INTERVAL '1 day') AS d
+            ON CONFLICT (hotel_id, room_id, date) DO NOTHING
+            """, nativeQuery = true)
+    int bulkInsertInventory(
+            @Param("hotelId") Long hotelId,
+            @Param("roomId") Long roomId,
+            @Param("city") String city,
+            @Param("totalCount") Integer totalCount,
+            @Param("price") BigDecimal price,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Appends only the dates after each active room's last inventory row up to endDate, for all rooms in one statement
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory (hotel_id, room_id, date, booked_count, reserved_count, total_count,
+                                   surge_factor, price, city, closed, created_at, updated_at)
+            SELECT r.hotel_id, r.id, CAST(d AS date), 0, 0, r.capacity,
+                   1, r.base_price, h.city, false, CURRENT_DATE, CURRENT_DATE
+            FROM room r
+            JOIN hotel h ON h.id = r.hotel_id
+            LEFT JOIN LATERAL (
+                SELECT MAX(i.date) AS last_date FROM inventory i
+                WHERE i.hotel_id = r.hotel_id AND i.room_id = r.id
+            ) AS last ON true
+            CROSS JOIN LATERAL generate_series(
+                    GREATEST(COALESCE(last.last_date + 1, CAST(:startDate AS date)), CAST(:startDate AS date)),
+                    CAST(:endDate AS date),
+                    INTERVAL '1 day') AS d
+            WHERE h.active = true
+            AND r.active = true
+            ON CONFLICT (hotel_id, room_id, date) DO NOTHING
+            """, nativeQuery = true)
+    int extendInventoryHorizon(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Gives back the reserved rooms of the given bookings for every night of their stay in one statement
+    @Modifying
+    @Query(value = """
+            UPDATE inventory i
+            SET reserved_count = i.reserved_count - released.rooms_count
+            FROM (
+                SELECT b.room_id, CAST(d AS date) AS date, SUM(b.rooms_count) AS rooms_count
+                FROM booking b
+                CROSS JOIN LATERAL generate_series(CAST(b.check_in_date AS date), CAST(b.check_out_date AS date), INTERVAL '1 day') AS d
+                WHERE b.id IN (:bookingIds)
+                GROUP BY b.room_id, CAST(d AS date)
+            ) AS released
+            WHERE i.room_id = released.room_id
+            AND i.date = released.date
+            """, nativeQuery = true)
+    int releaseReservedInventory(@Param("bookingIds") Collection<Long> bookingIds);
 
 
 
@@ -6,8 +6,10 @@ import com.SpringBootProject.AirBnB.dto.UserDto;
 import com.SpringBootProject.AirBnB.entity.User;
 import com.SpringBootProject.AirBnB.entity.enums.Role;
 import com.SpringBootProject.AirBnB.exception.ResourceNotFoundException;
+import com.SpringBootProject.AirBnB.exception.UnauthorisedException;
 import com.SpringBootProject.AirBnB.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,9 +17,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.Set;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class AuthService {
 
@@ -26,6 +30,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JWTService jwtService;
+    private final RefreshTokenRevocations refreshTokenRevocations;
 
     public UserDto signUp(SignUpRequestDto signUpRequestDto) {
 
@@ -57,11 +62,29 @@ public class AuthService {
         return arr;
     }
 
-    public String refreshToken(String refreshToken) {
-        Long id = jwtService.getUserIdFromToken(refreshToken);
+    // Every refresh revokes the presented token and returns a new pair. A token presented after it was
+    // rotated means it leaked, its whole family is revoked and the user has to log in again.
+    public String[] refreshToken(String refreshToken) {
+        JWTService.RefreshToken token = jwtService.parseRefreshToken(refreshToken);
 
+        if (refreshTokenRevocations.isFamilyRevoked(token.familyId())) {
+            throw new UnauthorisedException("Refresh token has been revoked");
+        }
+        if (refreshTokenRevocations.isRevoked(token.tokenId())
+                || !refreshTokenRevocations.revoke(token.tokenId(), token.userId(), token.expiresAt())) {
+            // Rotated tokens of the family expire at the latest one refresh lifetime from now
+            refreshTokenRevocations.revokeFamily(token.familyId(), token.userId(),
+                    Instant.now().plus(JWTService.REFRESH_TOKEN_LIFETIME));
+            log.warn("Refresh token {} of user {} was reused, revoked its family", token.tokenId(), token.userId());
+            throw new UnauthorisedException("Refresh token has already been used");
+        }
+
+        Long id = token.userId();
         User user = userRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("User not found with id: "+id));
-        return jwtService.generateAccessToken(user);
+        return new String[]{
+                jwtService.generateAccessToken(user),
+                jwtService.generateRefreshToken(user, token.familyId())
+        };
     }
 
 }
@@ -1,6 +1,7 @@
 package com.SpringBootProject.AirBnB.security;
 
 import com.SpringBootProject.AirBnB.entity.User;
+import com.SpringBootProject.AirBnB.entity.enums.AuthenticationMode;
 import com.SpringBootProject.AirBnB.security.JWTService;
 import com.SpringBootProject.AirBnB.service.UserService;
 import io.jsonwebtoken.JwtException;
@@ -11,6 +12,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -31,6 +33,9 @@ public class JWTAuthFilter extends OncePerRequestFilter {
     @Qualifier("handlerExceptionResolver")
     private HandlerExceptionResolver handlerExceptionResolver;
 
+    @Value("${security.auth.mode:CLAIMS}")
+    private AuthenticationMode authenticationMode;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
@@ -42,10 +47,10 @@ public class JWTAuthFilter extends OncePerRequestFilter {
             }
 
             String token = requestTokenHeader.split("Bearer ")[1];
-            Long userId = jwtService.getUserIdFromToken(token);
+            JWTService.VerifiedToken verifiedToken = jwtService.verifyAccessToken(token);
 
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                User user = userService.getUserById(userId);
+            if (verifiedToken.userId() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                User user = loadPrincipal(verifiedToken);
                 // check if the user should be allowed
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
@@ -59,4 +64,13 @@ public class JWTAuthFilter extends OncePerRequestFilter {
             handlerExceptionResolver.resolveException(request, response, null, ex);
         }
     }
+
+    // In CLAIMS mode the principal is built from the verified token without a query, role changes apply
+    // once the access token expires. DATABASE mode loads the user entity, cached for security.user-cache.ttl-seconds.
+    private User loadPrincipal(JWTService.VerifiedToken verifiedToken) {
+        if (authenticationMode == AuthenticationMode.DATABASE) {
+            return userService.getCachedUserById(verifiedToken.userId());
+        }
+        return jwtService.toPrincipal(verifiedToken);
+    }
 }
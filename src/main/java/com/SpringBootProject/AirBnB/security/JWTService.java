@@ -1,53 +1,206 @@
 package com.SpringBootProject.AirBnB.security;
 
 import com.SpringBootProject.AirBnB.entity.User;
+import com.SpringBootProject.AirBnB.entity.enums.Role;
+import com.SpringBootProject.AirBnB.exception.UnauthorisedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JWTService {
 
-    @Value("${jwt.secretKey}")
-    private String jwtSecretKey;
+    public static final Duration REFRESH_TOKEN_LIFETIME = Duration.ofDays(30 * 6);
 
-    private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(jwtSecretKey.getBytes(StandardCharsets.UTF_8));
+    private static final String TYPE_CLAIM = "typ";
+    private static final String ACCESS_TYPE = "access";
+    private static final String REFRESH_TYPE = "refresh";
+
+    // Key and parser are immutable and thread safe, built once instead of on every request
+    private final SecretKey secretKey;
+    private final JwtParser jwtParser;
+
+    // Tokens that already passed signature verification, keyed by SHA-256 digest so the tokens themselves are
+    // not kept in memory. An entry never outlives its token's expiry.
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JWTService(@Value("${jwt.secretKey}") String jwtSecretKey,
+                      @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+                      @Value("${jwt.verified-cache.ttl-seconds:60}") long ttlSeconds,
+                      MeterRegistry meterRegistry) {
+        this.secretKey = Keys.hmacShaKeyFor(jwtSecretKey.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        long maxTtlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, VerifiedToken>creating((digest, token) ->
+                        Duration.ofNanos(Math.max(0, Math.min(maxTtlNanos, token.nanosLeft())))))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerified");
     }
 
     public String generateAccessToken(User user) {
         return Jwts.builder()
                 .subject(user.getId().toString())
+                .claim(TYPE_CLAIM, ACCESS_TYPE)
                 .claim("email", user.getEmail())
-                .claim("roles", user.getRoles().toString())
+                .claim("roles", user.getRoles().stream().map(Role::name).toList())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 1000*60*10))
-                .signWith(getSecretKey())
+                .signWith(secretKey)
                 .compact();
     }
 
+    // A login starts a new family, rotated tokens carry on the family of the token they replace
     public String generateRefreshToken(User user) {
+        return generateRefreshToken(user, null);
+    }
+
+    public String generateRefreshToken(User user, String familyId) {
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(user.getId().toString())
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
+                .claim("family", familyId != null ? familyId : UUID.randomUUID().toString())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 1000L *60*60*24*30*6))
-                .signWith(getSecretKey())
+                .expiration(new Date(System.currentTimeMillis() + REFRESH_TOKEN_LIFETIME.toMillis()))
+                .signWith(secretKey)
                 .compact();
     }
 
+    // Not cached, refresh tokens are used once
+    public RefreshToken parseRefreshToken(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        String family = claims.get("family", String.class);
+        if (claims.getId() == null || family == null || claims.getExpiration() == null) {
+            throw new UnauthorisedException("Refresh token is no longer supported, log in again");
+        }
+        return new RefreshToken(claims.getId(), family, Long.valueOf(claims.getSubject()),
+                claims.getExpiration().toInstant());
+    }
+
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return Long.valueOf(claims.getSubject());
+        return verifyAccessToken(token).userId();
+    }
+
+    // Only access tokens authenticate a request, a refresh token sent as a bearer token is rejected
+    public VerifiedToken verifyAccessToken(String token) {
+        VerifiedToken verified = verify(token);
+        if (!verified.accessToken()) {
+            throw new UnsupportedJwtException("Not an access token");
+        }
+        return verified;
+    }
+
+    public VerifiedToken verify(String token) {
+        String digest = digestOf(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified != null && verified.nanosLeft() > 0) {
+            return verified;
+        }
+
+        // Invalid or expired tokens throw and are never cached
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        String email = claims.get("email", String.class);
+        Set<Role> roles = rolesOf(claims.get("roles"));
+        verified = new VerifiedToken(
+                Long.valueOf(claims.getSubject()),
+                email,
+                roles,
+                claims.getExpiration() == null ? Long.MAX_VALUE : claims.getExpiration().getTime(),
+                isAccessToken(claims.get(TYPE_CLAIM, String.class), email, roles));
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
     }
 
+    // Access tokens issued before the typ claim are recognised by their email and roles, which refresh tokens never carry
+    private static boolean isAccessToken(String type, String email, Set<Role> roles) {
+        if (type != null) {
+            return ACCESS_TYPE.equals(type);
+        }
+        return email != null && roles != null;
+    }
+
+    // Lightweight principal for the claims of an access token, not loaded from the database
+    public User toPrincipal(VerifiedToken token) {
+        User user = new User();
+        user.setId(token.userId());
+        user.setEmail(token.email());
+        user.setRoles(token.roles());
+        return user;
+    }
+
+    // A list of role names, or the "[GUEST, HOTEL_MANAGER]" string of tokens issued before roles became a list
+    private static Set<Role> rolesOf(Object claim) {
+        Collection<?> names;
+        if (claim instanceof Collection<?> collection) {
+            names = collection;
+        } else if (claim instanceof String text) {
+            names = Arrays.stream(text.replace("[", "").replace("]", "").split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .toList();
+        } else {
+            return null;
+        }
+        EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+        for (Object name : names) {
+            try {
+                roles.add(Role.valueOf(name.toString()));
+            } catch (IllegalArgumentException e) {
+                throw new MalformedJwtException("Unknown role in token: " + name, e);
+            }
+        }
+        return Collections.unmodifiableSet(roles);
+    }
+
+    private static String digestOf(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record RefreshToken(String tokenId, String familyId, Long userId, Instant expiresAt) {
+    }
+
+    public record VerifiedToken(Long userId, String email, Set<Role> roles, long expiresAtMillis, boolean accessToken) {
+
+        long nanosLeft() {
+            return TimeUnit.MILLISECONDS.toNanos(expiresAtMillis - System.currentTimeMillis());
+        }
+    }
 }
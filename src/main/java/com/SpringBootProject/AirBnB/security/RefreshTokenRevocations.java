@@ -0,0 +1,197 @@
+package com.SpringBootProject.AirBnB.security;
+
+import com.SpringBootProject.AirBnB.service.JobLeaseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory mirror of refresh_token_revocation. A Bloom filter answers "never revoked" for almost every
+ * token without touching the exact set, and the exact set settles the rare filter hits. Revocations made
+ * on other nodes arrive through a poll of revoked_at, so a token revoked elsewhere can still pass here for
+ * up to one poll interval. Rotation itself never relies on that, its insert is the atomic check.
+ */
+@Component
+@Slf4j
+public class RefreshTokenRevocations {
+
+    // Families share the table with tokens, the prefix keeps a family revocation from ever matching a token id
+    private static final String FAMILY_PREFIX = "family:";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final int expectedRevocations;
+    private final Duration feedOverlap;
+    private final String cleanupCron;
+
+    // Token id -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    // Null until the first poll, which loads every revocation that has not expired
+    private volatile LocalDateTime lastSeenRevokedAt;
+
+    public RefreshTokenRevocations(JdbcTemplate jdbcTemplate, JobLeaseService jobLeaseService,
+                                   @Value("${security.refresh.bloom.expected-revocations:100000}") int expectedRevocations,
+                                   @Value("${security.refresh.feed-overlap-ms:30000}") long feedOverlapMs,
+                                   @Value("${security.refresh.cleanup-cron:0 50 3 * * *}") String cleanupCron) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobLeaseService = jobLeaseService;
+        this.expectedRevocations = expectedRevocations;
+        this.feedOverlap = Duration.ofMillis(feedOverlapMs);
+        this.cleanupCron = cleanupCron;
+        this.filter = new BloomFilter(expectedRevocations);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        pollRevocations();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    public boolean isFamilyRevoked(String familyId) {
+        return isRevoked(FAMILY_PREFIX + familyId);
+    }
+
+    public void revokeFamily(String familyId, Long userId, Instant expiresAt) {
+        revoke(FAMILY_PREFIX + familyId, userId, expiresAt);
+    }
+
+    // False if the token was already revoked, the insert is what makes a rotation happen only once
+    public boolean revoke(String tokenId, Long userId, Instant expiresAt) {
+        int inserted = jdbcTemplate.update("""
+                INSERT INTO refresh_token_revocation (token_id, user_id, expires_at)
+                VALUES (?, ?, ?)
+                ON CONFLICT (token_id) DO NOTHING
+                """, tokenId, userId, Timestamp.from(expiresAt));
+        add(tokenId, expiresAt.toEpochMilli());
+        return inserted > 0;
+    }
+
+    // Rows are re-read with an overlap, a revocation that committed late behind a newer one is not missed
+    @Scheduled(fixedDelayString = "${security.refresh.revocation-poll-ms:5000}",
+            initialDelayString = "${security.refresh.revocation-poll-ms:5000}")
+    public void pollRevocations() {
+        Timestamp since = lastSeenRevokedAt == null
+                ? Timestamp.from(Instant.EPOCH)
+                : Timestamp.valueOf(lastSeenRevokedAt.minus(feedOverlap));
+        int[] rows = new int[1];
+        jdbcTemplate.query("""
+                SELECT token_id, expires_at, revoked_at FROM refresh_token_revocation
+                WHERE revoked_at > ? AND expires_at > now()
+                """, (RowCallbackHandler) rs -> {
+            add(rs.getString("token_id"), rs.getTimestamp("expires_at").getTime());
+            LocalDateTime revokedAt = rs.getTimestamp("revoked_at").toLocalDateTime();
+            if (lastSeenRevokedAt == null || revokedAt.isAfter(lastSeenRevokedAt)) {
+                lastSeenRevokedAt = revokedAt;
+            }
+            rows[0]++;
+        }, since);
+        log.debug("Read {} refresh token revocations", rows[0]);
+    }
+
+    // Expired tokens fail signature checks on their own, their revocations are dropped here and from the table
+    @Scheduled(cron = "${security.refresh.cleanup-cron:0 50 3 * * *}")
+    public void removeExpired() {
+        jobLeaseService.runOnce("security.refresh.cleanup", cleanupCron, Duration.ofMinutes(10), () -> {
+            int deleted = jdbcTemplate.update("DELETE FROM refresh_token_revocation WHERE expires_at < now()");
+            log.info("Deleted {} expired refresh token revocations", deleted);
+        });
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        rebuildFilter();
+    }
+
+    private synchronized void add(String tokenId, long expiresAtMillis) {
+        revoked.put(tokenId, expiresAtMillis);
+        filter.put(tokenId);
+        // A filter far past its expected size answers "maybe" too often, it is rebuilt twice as large
+        if (revoked.size() > filter.capacity()) {
+            rebuildFilter();
+        }
+    }
+
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2));
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        log.info("Refresh token revocation filter rebuilt with {} entries", revoked.size());
+    }
+
+    /**
+     * Bloom filter with about 1% false positives at capacity: 10 bits and 7 hashes per entry, the hashes
+     * derived from two halves of a 64-bit FNV-1a hash.
+     */
+    static final class BloomFilter {
+
+        private static final int BITS_PER_ENTRY = 10;
+        private static final int HASHES = 7;
+
+        private final int capacity;
+        private final long bitCount;
+        private final AtomicLongArray bits;
+
+        BloomFilter(int capacity) {
+            this.capacity = capacity;
+            this.bitCount = Math.max(64, (long) capacity * BITS_PER_ENTRY);
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        void put(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                bits.getAndUpdate(word, value -> value | mask);
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
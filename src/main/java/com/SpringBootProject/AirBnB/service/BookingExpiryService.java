@@ -0,0 +1,105 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.entity.enums.BookingStatus;
+import com.SpringBootProject.AirBnB.repository.BookingRepository;
+import com.SpringBootProject.AirBnB.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BookingExpiryService {
+
+    //Reaper that gives the reserved inventory of abandoned bookings back to search
+    private static final List<BookingStatus> PENDING_STATUSES = List.of(BookingStatus.RESERVED, BookingStatus.GUESTS_ADDED);
+
+    private final BookingRepository bookingRepository;
+    private final InventoryRepository inventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HotelSearchCache hotelSearchCache;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final PricingDirtySet pricingDirtySet;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${booking.expiry.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${booking.expiry.batch-size:500}")
+    private int batchSize;
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gauge("booking.expiry.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.expiry.interval-ms:60000}")
+    public void releaseExpiredBookings() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+
+        // Lag is how long the oldest abandoned booking has been holding inventory past its expiry
+        LocalDateTime oldest = bookingRepository.findOldestCreatedAtBefore(PENDING_STATUSES, cutoff);
+        lagSeconds.set(oldest == null ? 0 : Duration.between(oldest, cutoff).toSeconds());
+        if (oldest == null) {
+            log.debug("No expired bookings to release");
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        int bookingsReleased = 0;
+        int rowsReleased = 0;
+
+        while (true) {
+            ReleasedBatch batch = transactionTemplate.execute(status -> releaseBatch(cutoff));
+            if (batch == null || batch.bookings() == 0) {
+                break;
+            }
+            bookingsReleased += batch.bookings();
+            rowsReleased += batch.inventoryRows();
+            batch.cities().forEach(hotelSearchCache::invalidateCity);
+            roomAvailabilityIndex.reloadRoomsAfterCommit(batch.roomIds());
+            if (batch.bookings() < batchSize) {
+                break;
+            }
+        }
+
+        meterRegistry.counter("booking.expiry.released.bookings").increment(bookingsReleased);
+        meterRegistry.counter("booking.expiry.released.inventory.rows").increment(rowsReleased);
+        meterRegistry.summary("booking.expiry.released.rows.per.run").record(rowsReleased);
+        meterRegistry.timer("booking.expiry.run").record(Duration.ofNanos(System.nanoTime() - startTime));
+
+        log.info("Expired {} bookings and released {} inventory rows", bookingsReleased, rowsReleased);
+    }
+
+    private ReleasedBatch releaseBatch(LocalDateTime cutoff) {
+        List<Long> bookingIds = bookingRepository.lockExpiredBookingIds(cutoff, batchSize);
+        if (bookingIds.isEmpty()) {
+            return new ReleasedBatch(0, 0, List.of(), List.of());
+        }
+
+        int rows = inventoryRepository.releaseReservedInventory(bookingIds);
+        bookingRepository.updateBookingStatus(bookingIds, BookingStatus.EXPIRED);
+        pricingDirtySet.markBookings(bookingIds);
+        List<String> cities = bookingRepository.findDistinctHotelCities(bookingIds);
+        List<Long> roomIds = bookingRepository.findDistinctRoomIds(bookingIds);
+        log.debug("Released {} inventory rows for {} expired bookings", rows, bookingIds.size());
+        return new ReleasedBatch(bookingIds.size(), rows, cities, roomIds);
+    }
+
+    // Cities and rooms are refreshed by the caller once the batch has committed
+    private record ReleasedBatch(int bookings, int inventoryRows, List<String> cities, List<Long> roomIds) {
+    }
+}
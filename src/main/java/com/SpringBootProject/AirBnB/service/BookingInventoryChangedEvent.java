@@ -0,0 +1,7 @@
+package com.SpringBootProject.AirBnB.service;
+
+import java.util.Collection;
+
+// Published when a booking changes the inventory of some rooms of a hotel, handled after the booking commits
+public record BookingInventoryChangedEvent(Long hotelId, Collection<Long> roomIds) {
+}
@@ -0,0 +1,78 @@
+package com.SpringBootProject.AirBnB.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reprices the nights of booked rooms shortly after the booking commits instead of waiting for the scheduled
+ * drain. The first event of a hotel schedules one pass after pricing.events.coalesce-ms, later events for that
+ * hotel only add their rooms to it. The dirty keys are written with the booking, so a lost pass is picked up
+ * by the scheduled drain.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookingRepricingListener {
+
+    private final PricingUpdateService pricingUpdateService;
+    private final MeterRegistry meterRegistry;
+
+    // Rooms are only added inside compute, so the set a pass removes is never written again
+    private final Map<Long, Set<Long>> pendingRoomsByHotel = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("booking-repricing").daemon().factory());
+
+    @Value("${pricing.events.coalesce-ms:2000}")
+    private long coalesceMs;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingInventoryChanged(BookingInventoryChangedEvent event) {
+        boolean[] scheduled = {false};
+        pendingRoomsByHotel.compute(event.hotelId(), (hotelId, roomIds) -> {
+            if (roomIds == null) {
+                roomIds = new HashSet<>();
+                scheduled[0] = true;
+            }
+            roomIds.addAll(event.roomIds());
+            return roomIds;
+        });
+
+        if (scheduled[0]) {
+            executor.schedule(() -> reprice(event.hotelId()), coalesceMs, TimeUnit.MILLISECONDS);
+        } else {
+            meterRegistry.counter("pricing.events.coalesced").increment();
+        }
+    }
+
+    private void reprice(Long hotelId) {
+        Set<Long> roomIds = pendingRoomsByHotel.remove(hotelId);
+        if (roomIds == null) {
+            return;
+        }
+        try {
+            pricingUpdateService.updateDirtyPricesForRooms(roomIds);
+            meterRegistry.counter("pricing.events.passes").increment();
+        } catch (RuntimeException e) {
+            log.warn("Repricing after bookings failed for hotel: {}, the scheduled drain will retry", hotelId, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -6,6 +6,7 @@ import com.SpringBootProject.AirBnB.dto.BookingRequest;
 import com.SpringBootProject.AirBnB.dto.GuestDto;
 import com.SpringBootProject.AirBnB.entity.*;
 import com.SpringBootProject.AirBnB.entity.enums.BookingStatus;
+import com.SpringBootProject.AirBnB.entity.enums.InventoryReservationMode;
 import com.SpringBootProject.AirBnB.exception.ResourceNotFoundException;
 import com.SpringBootProject.AirBnB.repository.*;
 import com.SpringBootProject.AirBnB.exception.UnAuthorisedException;
@@ -14,6 +15,8 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -36,9 +39,14 @@ public class BookingServiceImpl implements BookingService {
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
     private final InventoryRepository inventoryRepository;
+    private final HotelSearchCache hotelSearchCache;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final PricingDirtySet pricingDirtySet;
+    private final ApplicationEventPublisher eventPublisher;
     private ModelMapper modelMapper;
-    User user = getCurrentUser();
 
+    @Value("${booking.reservation.mode:PESSIMISTIC_LOCK}")
+    private InventoryReservationMode reservationMode;
 
     @Override
     @Transactional
@@ -52,24 +60,19 @@ public class BookingServiceImpl implements BookingService {
         Room room = roomRepository.findById(bookingRequest.getRoomId()).
                 orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + bookingRequest.getRoomId()));
 
-        List<Inventory> inventoryList = inventoryRepository.findAndLockAvailableInventory(
-                room.getId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate(), bookingRequest.getRoomsCount()
-        );
-
         long daysCount = ChronoUnit.DAYS.between(bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate()) + 1;
 
-        if (inventoryList.size() != daysCount) {
-            log.error("BookingServiceImpl.initializeBooking - Not enough inventory available for booking");
-            throw new RuntimeException("Not enough inventory available for booking"); //TODO Later I will create Illegal StateException and throw that
-        }
-
-
         // Resurve the Inventory
-        for (Inventory inventory : inventoryList) {
-            inventory.setReservedCount(inventory.getReservedCount() + bookingRequest.getRoomsCount());
-
+        if (reservationMode == InventoryReservationMode.CONDITIONAL_UPDATE) {
+            reserveWithConditionalUpdate(room, bookingRequest, daysCount);
+        } else {
+            reserveWithPessimisticLock(room, bookingRequest, daysCount);
         }
-        inventoryRepository.saveAll(inventoryList);
+        hotelSearchCache.invalidateCityAfterCommit(hotel.getCity());
+        roomAvailabilityIndex.adjustAfterCommit(room.getId(), bookingRequest.getCheckInDate(),
+                bookingRequest.getCheckOutDate(), -bookingRequest.getRoomsCount());
+        pricingDirtySet.markRoomDates(room.getId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate());
+        eventPublisher.publishEvent(new BookingInventoryChangedEvent(hotel.getId(), List.of(room.getId())));
 
         // Create The Booking Entity and save it to the database
 
@@ -84,7 +87,7 @@ public class BookingServiceImpl implements BookingService {
                 .hotel(hotel)
                 .room(room)
                 .roomsCount(bookingRequest.getRoomsCount())
-                .user(user) //TODO Change with Spring Sequrity
+                .user(getCurrentUser())
                 .checkInDate(bookingRequest.getCheckInDate().atStartOfDay())
                 .checkOutDate(bookingRequest.getCheckOutDate().atStartOfDay())
                 .bookingStatus(BookingStatus.RESERVED)
@@ -106,7 +109,9 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
 
-        if(!user.equals(booking.getUser())) {
+        // The principal can be built from token claims, so ownership is checked by id rather than entity equality
+        User user = getCurrentUser();
+        if(!user.getId().equals(booking.getUser().getId())) {
             throw new UnAuthorisedException("Booking does not belong to the current user" +user.getId());
 
         }
@@ -137,6 +142,36 @@ public class BookingServiceImpl implements BookingService {
     }
 
 
+    private void reserveWithPessimisticLock(Room room, BookingRequest bookingRequest, long daysCount) {
+        List<Inventory> inventoryList = inventoryRepository.findAndLockAvailableInventory(
+                room.getId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate(), bookingRequest.getRoomsCount()
+        );
+
+        if (inventoryList.size() != daysCount) {
+            log.error("BookingServiceImpl.initializeBooking - Not enough inventory available for booking");
+            throw new RuntimeException("Not enough inventory available for booking"); //TODO Later I will create Illegal StateException and throw that
+        }
+
+        for (Inventory inventory : inventoryList) {
+            inventory.setReservedCount(inventory.getReservedCount() + bookingRequest.getRoomsCount());
+
+        }
+        inventoryRepository.saveAll(inventoryList);
+    }
+
+    private void reserveWithConditionalUpdate(Room room, BookingRequest bookingRequest, long daysCount) {
+        int reservedNights = inventoryRepository.reserveAvailableInventory(
+                room.getId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate(), bookingRequest.getRoomsCount()
+        );
+
+        // Some nights were full or closed, throwing rolls back the nights that were already reserved
+        if (reservedNights != daysCount) {
+            log.error("BookingServiceImpl.initializeBooking - Not enough inventory available for booking, reserved {} of {} nights",
+                    reservedNights, daysCount);
+            throw new RuntimeException("Not enough inventory available for booking");
+        }
+    }
+
     public boolean hasBookingExpired(Booking booking) {
         return booking.getCreatedAt().plusMinutes(10).isBefore(LocalDateTime.now());
     }
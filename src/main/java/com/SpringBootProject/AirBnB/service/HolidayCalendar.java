@@ -0,0 +1,84 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.strategy.HolidayDays;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Holidays from the holiday table, plus an optional CSV file of "date,city[,name]" lines (blank city for every
+ * city). Reloaded on a timer and swapped in as a whole, so pricing never sees a half loaded calendar.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class HolidayCalendar {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${holiday.calendar.file:}")
+    private String calendarFile;
+
+    private volatile HolidayDays holidays = HolidayDays.EMPTY;
+
+    public HolidayDays current() {
+        return holidays;
+    }
+
+    public boolean isHoliday(String city, LocalDate date) {
+        return holidays.contains(city, date.toEpochDay());
+    }
+
+    public void replace(HolidayDays holidays) {
+        this.holidays = holidays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reload();
+    }
+
+    // A failed reload keeps the previous calendar
+    @Scheduled(fixedDelayString = "${holiday.calendar.reload-ms:300000}",
+            initialDelayString = "${holiday.calendar.reload-ms:300000}")
+    public void reload() {
+        try {
+            HolidayDays.Builder builder = HolidayDays.builder();
+            jdbcTemplate.query("SELECT date, city FROM holiday", (RowCallbackHandler) rs ->
+                    builder.add(rs.getString("city"), rs.getDate("date").toLocalDate()));
+            if (!calendarFile.isBlank()) {
+                readFile(Path.of(calendarFile), builder);
+            }
+
+            HolidayDays loaded = builder.build();
+            replace(loaded);
+            log.info("Holiday calendar loaded with {} entries", loaded.size());
+        } catch (RuntimeException | IOException e) {
+            log.warn("Could not reload the holiday calendar, keeping the previous one", e);
+        }
+    }
+
+    private static void readFile(Path path, HolidayDays.Builder builder) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] columns = trimmed.split(",", -1);
+            builder.add(columns.length > 1 ? columns[1] : null, LocalDate.parse(columns[0].trim()));
+        }
+    }
+}
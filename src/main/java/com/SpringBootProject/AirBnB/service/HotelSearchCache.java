@@ -0,0 +1,99 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.dto.HotelPriceDto;
+import com.SpringBootProject.AirBnB.dto.HotelSearchRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of hotel search pages, invalidated per city whenever min prices or inventory of that city change.
+ * Every key carries the city generation it was read under, so a search that started before an invalidation
+ * can never put its stale page back under a live key.
+ */
+@Component
+@Slf4j
+public class HotelSearchCache {
+
+    private final Cache<SearchKey, Page<HotelPriceDto>> cache;
+    private final Map<String, AtomicLong> cityGenerations = new ConcurrentHashMap<>();
+
+    public HotelSearchCache(MeterRegistry meterRegistry,
+                            @Value("${search.cache.max-size:10000}") long maxSize,
+                            @Value("${search.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "hotelSearch");
+    }
+
+    public Page<HotelPriceDto> get(HotelSearchRequest request, Supplier<Page<HotelPriceDto>> loader) {
+        if (request.getCity() == null) {
+            return loader.get();
+        }
+        SearchKey key = new SearchKey(
+                request.getCity(),
+                currentGeneration(request.getCity()),
+                request.getStartDate(),
+                request.getEndDate(),
+                request.getRoomCount(),
+                request.getPage(),
+                request.getSize()
+        );
+        return cache.get(key, k -> loader.get());
+    }
+
+    public void invalidateCity(String city) {
+        if (city == null) {
+            return;
+        }
+        generationOf(city).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> city.equals(key.city()));
+        log.debug("Invalidated hotel search cache for city: {}", city);
+    }
+
+    // Invalidating before commit would let a concurrent search cache the old rows again
+    public void invalidateCityAfterCommit(String city) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateCity(city);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateCity(city);
+            }
+        });
+    }
+
+    // Entries are only created by invalidations, which come from cities that have hotels, so request supplied
+    // cities never grow the map. A city without an entry is at generation 0.
+    private long currentGeneration(String city) {
+        AtomicLong generation = cityGenerations.get(city);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private AtomicLong generationOf(String city) {
+        return cityGenerations.computeIfAbsent(city, c -> new AtomicLong());
+    }
+
+    private record SearchKey(String city, long generation, LocalDate startDate, LocalDate endDate,
+                             Integer roomCount, Integer page, Integer size) {
+    }
+}
@@ -24,6 +24,7 @@ public class HotelServiceImpl implements HotelService {
 
     private final HotelRepository hotelRepository;
     private final InventoryService inventoryService;
+    private final HotelSearchCache hotelSearchCache;
     private final ModelMapper modelMapper;
 
     @Override
@@ -82,10 +83,11 @@ public class HotelServiceImpl implements HotelService {
         hotel.setActive(true);
 
         for(Room room : hotel.getRooms()) {
-            inventoryService.initializeRoomForAYear(room);
+            inventoryService.initializeRoomInventory(room);
         }
 
         hotelRepository.save(hotel);
+        hotelSearchCache.invalidateCityAfterCommit(hotel.getCity());
         log.info("HotelServiceImpl.activateHotel - Hotel with id: " + hotelId + " activated");
     }
 
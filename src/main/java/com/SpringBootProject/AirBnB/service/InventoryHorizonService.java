@@ -0,0 +1,51 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryHorizonService {
+
+    //Schedular to keep the inventory of every active room a fixed number of days ahead
+    private final InventoryRepository inventoryRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.horizon-days:365}")
+    private int horizonDays;
+
+    @Value("${inventory.horizon.cron:0 15 0 * * *}")
+    private String horizonCron;
+
+    // One node appends the rows, the others pick them up on their next index rebuild
+    @Scheduled(cron = "${inventory.horizon.cron:0 15 0 * * *}")
+    public void extendInventoryHorizon() {
+        jobLeaseService.runOnce("inventory.horizon", horizonCron, Duration.ofMinutes(30),
+                () -> transactionTemplate.executeWithoutResult(status -> appendHorizonRows()));
+    }
+
+    private void appendHorizonRows() {
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = today.plusDays(horizonDays - 1);
+        log.info("Extending inventory horizon up to {}", endDate);
+
+        long startTime = System.nanoTime();
+        int rows = inventoryRepository.extendInventoryHorizon(today, endDate);
+        long elapsedNanos = Math.max(System.nanoTime() - startTime, 1);
+        roomAvailabilityIndex.rebuildAfterCommit();
+
+        log.info("Appended {} inventory rows in {} ms ({} rows/sec)",
+                rows, elapsedNanos / 1_000_000, (long) (rows * 1_000_000_000d / elapsedNanos));
+    }
+}
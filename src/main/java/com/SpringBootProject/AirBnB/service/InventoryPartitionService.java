@@ -0,0 +1,60 @@
+package com.SpringBootProject.AirBnB.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryPartitionService {
+
+    //Schedular to create the monthly inventory partitions ahead of the horizon and archive the old ones
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeaseService jobLeaseService;
+
+    @Value("${inventory.partition.months-ahead:13}")
+    private int monthsAhead;
+
+    @Value("${inventory.partition.retention-months:3}")
+    private int retentionMonths;
+
+    @Value("${inventory.partition.cron:0 5 0 * * *}")
+    private String partitionCron;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        managePartitions();
+    }
+
+    @Scheduled(cron = "${inventory.partition.cron:0 5 0 * * *}")
+    public void managePartitions() {
+        jobLeaseService.runOnce("inventory.partitions", partitionCron, Duration.ofMinutes(10), this::createAndArchivePartitions);
+    }
+
+    private void createAndArchivePartitions() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            Boolean partitionCreated = jdbcTemplate.queryForObject(
+                    "SELECT create_inventory_partition(?)", Boolean.class, currentMonth.plusMonths(i));
+            if (Boolean.TRUE.equals(partitionCreated)) {
+                created++;
+            }
+        }
+
+        Integer archived = jdbcTemplate.queryForObject(
+                "SELECT archive_inventory_partitions(?)", Integer.class, currentMonth.minusMonths(retentionMonths));
+
+        log.info("Inventory partitions up to date, created {} and archived {}", created, archived);
+    }
+}
@@ -2,24 +2,34 @@ package com.SpringBootProject.AirBnB.service;
 
 import com.SpringBootProject.AirBnB.dto.HotelDto;
 import com.SpringBootProject.AirBnB.dto.HotelPriceDto;
+import com.SpringBootProject.AirBnB.dto.HotelSearchPageDto;
 import com.SpringBootProject.AirBnB.dto.HotelSearchRequest;
 import com.SpringBootProject.AirBnB.entity.Hotel;
 import com.SpringBootProject.AirBnB.entity.HotelMinPrice;
 import com.SpringBootProject.AirBnB.entity.Inventory;
 import com.SpringBootProject.AirBnB.entity.Room;
+import com.SpringBootProject.AirBnB.exception.BadRequestException;
 import com.SpringBootProject.AirBnB.repository.HotelMinPriceRepository;
+import com.SpringBootProject.AirBnB.repository.HotelPriceQueries;
 import com.SpringBootProject.AirBnB.repository.InventoryRepository;
+import jakarta.transaction.Transactional;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
 
 @Data
 @Service
@@ -30,32 +40,43 @@ public class InventoryServiceImpl implements InventoryService {
     private final InventoryRepository inventoryRepository;
     private final ModelMapper modelMapper;
     private final HotelMinPriceRepository hotelMinRepository;
+    private final HotelPriceQueries hotelPriceQueries;
+    private final HotelSearchCache hotelSearchCache;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final PricingDirtySet pricingDirtySet;
 
-    @Override
-    public void initializeRoomForAYear(Room room) {
-
-        LocalDate today = LocalDate.now();
-        LocalDate endDate = today.plusYears(1);
-
-        for(;today.isBefore(endDate);today = today.plusDays(1  )){
-
-            Inventory inventory = Inventory.builder()
-                    .hotel(room.getHotel())
-                    .room(room)
-                    .bookedCount(0)
-                    .city(room.getHotel().getCity())
-                    .date(today)
-                    .price(room.getBasePrice())
-                    .totalCount(room.getCapacity())
-                    .closed(false)
-                    .build();
-
-            inventoryRepository.save(inventory);
-        }
-
+    @Value("${search.availability-index.enabled:true}")
+    private boolean availabilityIndexEnabled;
 
+    // Only the first few weeks are written up front, InventoryHorizonService extends every active room daily
+    @Value("${inventory.initial-window-days:30}")
+    private int initialWindowDays;
 
+    @Override
+    @Transactional
+    public void initializeRoomInventory(Room room) {
 
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = today.plusDays(initialWindowDays - 1);
+
+        long startTime = System.nanoTime();
+        int rows = inventoryRepository.bulkInsertInventory(
+                room.getHotel().getId(),
+                room.getId(),
+                room.getHotel().getCity(),
+                room.getCapacity(),
+                room.getBasePrice(),
+                today,
+                endDate
+        );
+        long elapsedNanos = Math.max(System.nanoTime() - startTime, 1);
+
+        roomAvailabilityIndex.reloadRoomsAfterCommit(List.of(room.getId()));
+        // New rows start at the base price, the repricer applies surge and urgency shortly after
+        pricingDirtySet.markRoomDates(room.getId(), today, endDate);
+
+        log.info("InventoryServiceImpl.initializeRoomInventory - Inserted {} inventory rows for room: {} in {} ms ({} rows/sec)",
+                rows, room.getId(), elapsedNanos / 1_000_000, (long) (rows * 1_000_000_000d / elapsedNanos));
     }
 
     @Override
@@ -64,15 +85,28 @@ public class InventoryServiceImpl implements InventoryService {
         LocalDate today = LocalDate.now();
 
         inventoryRepository.deleteByDateAfterAndRoom(today, room);
+        roomAvailabilityIndex.reloadRoomsAfterCommit(List.of(room.getId()));
 
       }
 
   @Override
     public Page<HotelPriceDto> searchHotels(HotelSearchRequest hotelSearchRequest) {
+      return hotelSearchCache.get(hotelSearchRequest, () -> findHotels(hotelSearchRequest));
+  }
+
+    private Page<HotelPriceDto> findHotels(HotelSearchRequest hotelSearchRequest) {
       Pageable pageable = PageRequest.of(hotelSearchRequest.getPage(), hotelSearchRequest.getSize());
       Long dateCount = ChronoUnit.DAYS.between(hotelSearchRequest.getStartDate(),hotelSearchRequest.getEndDate())+1;
 
-      //TODO Can change the business logic later if different requirement comes
+      if (useAvailabilityIndex()) {
+          Set<Long> hotelIds = findAvailableHotelIds(hotelSearchRequest);
+          if (hotelIds.isEmpty()) {
+              return Page.empty(pageable);
+          }
+          return hotelPriceQueries.findPricesForHotels(hotelIds,
+                  hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate(), dateCount, pageable);
+      }
+
    Page<HotelPriceDto> hotelPage =
            hotelMinRepository.findHotelsWithAvailableInventory(hotelSearchRequest.getCity()
     , hotelSearchRequest.getStartDate(),hotelSearchRequest.getEndDate(), hotelSearchRequest.getRoomCount(),
@@ -84,4 +118,76 @@ public class InventoryServiceImpl implements InventoryService {
    return hotelPage;
 
   }
+
+    @Override
+    public HotelSearchPageDto searchHotelsByCursor(HotelSearchRequest hotelSearchRequest) {
+        Long dateCount = ChronoUnit.DAYS.between(hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate()) + 1;
+        int size = hotelSearchRequest.getSize();
+
+        // First page starts below every real (price, id) pair
+        double afterPrice = -1;
+        long afterHotelId = -1;
+        if (hotelSearchRequest.getCursor() != null && !hotelSearchRequest.getCursor().isBlank()) {
+            SearchCursor cursor = decodeCursor(hotelSearchRequest.getCursor());
+            afterPrice = cursor.price();
+            afterHotelId = cursor.hotelId();
+        }
+
+        // One extra row tells us whether there is a next page without counting
+        List<HotelPriceDto> hotels;
+        if (useAvailabilityIndex()) {
+            Set<Long> hotelIds = findAvailableHotelIds(hotelSearchRequest);
+            hotels = hotelIds.isEmpty() ? List.of() : hotelPriceQueries.findPricesForHotelsAfter(hotelIds,
+                    hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate(), dateCount,
+                    afterPrice, afterHotelId, size + 1);
+        } else {
+            hotels = hotelMinRepository.findHotelsWithAvailableInventoryAfter(
+                    hotelSearchRequest.getCity(), hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate(),
+                    hotelSearchRequest.getRoomCount(), dateCount, afterPrice, afterHotelId, PageRequest.of(0, size + 1));
+        }
+
+        if (hotels.size() <= size) {
+            return new HotelSearchPageDto(hotels, null);
+        }
+
+        List<HotelPriceDto> content = hotels.subList(0, size);
+        HotelPriceDto last = content.get(size - 1);
+        return new HotelSearchPageDto(new ArrayList<>(content), encodeCursor(last.getPrice(), last.getHotelId()));
+    }
+
+    // Falls back to the availability subquery until the index has been loaded
+    private boolean useAvailabilityIndex() {
+        return availabilityIndexEnabled && roomAvailabilityIndex.isReady();
+    }
+
+    private Set<Long> findAvailableHotelIds(HotelSearchRequest hotelSearchRequest) {
+        return roomAvailabilityIndex.findAvailableHotelIds(hotelSearchRequest.getCity(),
+                hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate(),
+                // A search without a room count asks for one room
+                hotelSearchRequest.getRoomCount() == null ? 1 : hotelSearchRequest.getRoomCount());
+    }
+
+    private static String encodeCursor(Double price, long hotelId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((price + ":" + hotelId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Bad base64, a missing part and unparsable numbers all fail the same way, as a client error
+    private static SearchCursor decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length == 2) {
+                double price = Double.parseDouble(parts[0]);
+                if (Double.isFinite(price)) {
+                    return new SearchCursor(price, Long.parseLong(parts[1]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Unreadable search cursor: {}", cursor, e);
+        }
+        throw new BadRequestException("Invalid search cursor");
+    }
+
+    private record SearchCursor(double price, long hotelId) {
+    }
 }
@@ -0,0 +1,124 @@
+package com.SpringBootProject.AirBnB.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Leases in the job_lease table, the only coordination between nodes. Every change runs in its own
+ * transaction so a lease is visible to the other nodes as soon as it is taken, whatever the caller's
+ * transaction does. A node that dies stops renewing and its leases can be taken once they expire.
+ */
+@Service
+@Slf4j
+public class JobLeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final String nodeId;
+    private final Duration fireTolerance;
+
+    public JobLeaseService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           @Value("${scheduling.node-id:}") String nodeId,
+                           @Value("${scheduling.fire-tolerance-seconds:300}") long fireToleranceSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.fireTolerance = Duration.ofSeconds(fireToleranceSeconds);
+        log.info("Scheduling node id: {}", this.nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Also renews a lease this node already holds
+    public boolean tryAcquire(String name, Duration ttl) {
+        Integer updated = newTransaction.execute(status -> jdbcTemplate.update("""
+                INSERT INTO job_lease (name, owner, acquired_at, expires_at)
+                VALUES (?, ?, now(), now() + CAST(? AS interval))
+                ON CONFLICT (name) DO UPDATE
+                SET owner = EXCLUDED.owner,
+                    acquired_at = CASE WHEN job_lease.owner = EXCLUDED.owner THEN job_lease.acquired_at ELSE now() END,
+                    expires_at = EXCLUDED.expires_at
+                WHERE job_lease.completed_at IS NULL
+                AND (job_lease.expires_at < now() OR job_lease.owner = EXCLUDED.owner)
+                """, name, nodeId, ttl.toMillis() + " milliseconds"));
+        return updated != null && updated > 0;
+    }
+
+    // Lets another node take the lease straight away
+    public void release(String name) {
+        newTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE job_lease SET expires_at = now() WHERE name = ? AND owner = ? AND completed_at IS NULL",
+                name, nodeId));
+    }
+
+    public void complete(String name) {
+        newTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE job_lease SET completed_at = now(), expires_at = now() WHERE name = ? AND owner = ?",
+                name, nodeId));
+    }
+
+    // Same key on every node for one firing of a cron job. The key is the fire time the cron scheduled, so nodes
+    // whose clocks or schedulers are up to fireTolerance apart still agree on it
+    public String fireKey(String job, String cron) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime fireTime = CronExpression.parse(cron).next(now.minus(fireTolerance));
+        if (fireTime == null || fireTime.isAfter(now)) {
+            // Not a firing of the cron, e.g. a run at startup, nodes starting in the same minute share it
+            log.debug("No firing of {} within {} of {}", cron, fireTolerance, now);
+            fireTime = now.truncatedTo(ChronoUnit.MINUTES);
+        }
+        return job + "@" + fireTime;
+    }
+
+    // Runs the task on the one node that takes this firing's lease. If that node dies the firing is skipped,
+    // the next firing catches up
+    public boolean runOnce(String job, String cron, Duration ttl, Runnable task) {
+        String name = fireKey(job, cron);
+        if (!tryAcquire(name, ttl)) {
+            log.info("Skipping {}, it runs on another node", name);
+            return false;
+        }
+        try {
+            task.run();
+            complete(name);
+            return true;
+        } catch (RuntimeException e) {
+            release(name);
+            throw e;
+        }
+    }
+
+    @Scheduled(cron = "${scheduling.lease.cleanup-cron:0 45 3 * * *}")
+    public void deleteOldLeases() {
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM job_lease WHERE COALESCE(completed_at, expires_at) < now() - interval '7 days'");
+        log.info("Deleted {} old job leases", deleted);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,195 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.dto.PriceSimulationRequest;
+import com.SpringBootProject.AirBnB.dto.SimulatedPriceDto;
+import com.SpringBootProject.AirBnB.entity.Hotel;
+import com.SpringBootProject.AirBnB.entity.Inventory;
+import com.SpringBootProject.AirBnB.entity.Room;
+import com.SpringBootProject.AirBnB.exception.BadRequestException;
+import com.SpringBootProject.AirBnB.exception.ResourceNotFoundException;
+import com.SpringBootProject.AirBnB.repository.HotelRepository;
+import com.SpringBootProject.AirBnB.repository.RoomRepository;
+import com.SpringBootProject.AirBnB.strategy.FixedPointPricingEngine;
+import com.SpringBootProject.AirBnB.strategy.PricingContext;
+import com.SpringBootProject.AirBnB.strategy.PricingPass;
+import com.SpringBootProject.AirBnB.strategy.PricingRuleChain;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * What-if pricing for a hotel. Inventory is read with plain JDBC into transient Inventory objects with the
+ * requested overrides applied, so nothing is attached to a persistence context and nothing can be written.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PriceSimulationService {
+
+    private static final String INVENTORY_QUERY = """
+            SELECT i.date, i.city, i.surge_factor, i.booked_count, i.reserved_count, i.total_count, i.price
+            FROM inventory i
+            WHERE i.room_id = :roomId
+            AND i.date BETWEEN :startDate AND :endDate
+            ORDER BY i.date
+            """;
+
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final PricingService pricingService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${pricing.simulation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${pricing.simulation.max-days:366}")
+    private int maxDays;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    // Shared by every request, so concurrent simulations together never hold more than these connections
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        int workers = Math.max(1, Math.min(parallelism, connectionPoolSize / 2));
+        executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("price-simulation-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Runs before the response starts, so an unknown hotel is still a plain error response
+    public PriceSimulation prepare(Long hotelId, PriceSimulationRequest request) {
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
+
+        Map<Long, BigDecimal> basePrices = request.getBasePrices() == null ? Map.of() : request.getBasePrices();
+        List<RoomSnapshot> rooms = roomRepository.findAllByHotelId(hotelId).stream()
+                .map(room -> new RoomSnapshot(room.getId(), basePrices.getOrDefault(room.getId(), room.getBasePrice())))
+                .toList();
+
+        LocalDate startDate = request.getStartDate() == null ? LocalDate.now() : request.getStartDate();
+        LocalDate endDate = request.getEndDate() == null ? startDate.plusYears(1) : request.getEndDate();
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("endDate must not be before startDate");
+        }
+        validateSurgeFactor(request.getSurgeFactor());
+        if (request.getSurgeFactors() != null) {
+            request.getSurgeFactors().values().forEach(PriceSimulationService::validateSurgeFactor);
+        }
+        if (endDate.isAfter(startDate.plusDays(maxDays - 1))) {
+            endDate = startDate.plusDays(maxDays - 1);
+        }
+
+        PricingContext context = pricingService.createContext();
+        return new PriceSimulation(hotelId, rooms, startDate, endDate, request.getSurgeFactor(),
+                request.getSurgeFactors() == null ? Map.of() : request.getSurgeFactors(),
+                context, context.chainFor(hotel.getCity()));
+    }
+
+    // A zero or negative factor would price nights at or below nothing
+    private static void validateSurgeFactor(BigDecimal surgeFactor) {
+        if (surgeFactor != null && surgeFactor.signum() <= 0) {
+            throw new BadRequestException("Surge factor must be positive: " + surgeFactor);
+        }
+    }
+
+    // Rooms are priced in parallel, each room's nights reach the sink together once the room is done
+    public void stream(PriceSimulation simulation, Consumer<List<SimulatedPriceDto>> sink) {
+        long startTime = System.nanoTime();
+
+        List<Future<Integer>> results;
+        try {
+            results = executor.invokeAll(simulation.rooms().stream()
+                    .map(room -> (Callable<Integer>) () -> {
+                        List<SimulatedPriceDto> prices = simulateRoom(simulation, room);
+                        sink.accept(prices);
+                        return prices.size();
+                    })
+                    .toList());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Price simulation interrupted", e);
+        }
+
+        int rows = 0;
+        for (Future<Integer> result : results) {
+            try {
+                rows += result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Price simulation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Price simulation failed for hotel: " + simulation.hotelId(), e.getCause());
+            }
+        }
+        log.info("Simulated {} prices for {} rooms of hotel: {} in {} ms", rows, simulation.rooms().size(),
+                simulation.hotelId(), (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    private List<SimulatedPriceDto> simulateRoom(PriceSimulation simulation, RoomSnapshot roomSnapshot) {
+        Room room = new Room();
+        room.setId(roomSnapshot.roomId());
+        room.setBasePrice(roomSnapshot.basePrice());
+        PricingPass pass = new PricingPass();
+
+        List<SimulatedPriceDto> prices = new ArrayList<>();
+        jdbcTemplate.query(INVENTORY_QUERY, new MapSqlParameterSource("roomId", roomSnapshot.roomId())
+                .addValue("startDate", simulation.startDate())
+                .addValue("endDate", simulation.endDate()), (RowCallbackHandler) rs -> {
+            LocalDate date = rs.getDate("date").toLocalDate();
+            Inventory inventory = Inventory.builder()
+                    .room(room)
+                    .date(date)
+                    .city(rs.getString("city"))
+                    .surgeFactor(simulation.surgeFactorFor(date, rs.getBigDecimal("surge_factor")))
+                    .bookedCount(rs.getInt("booked_count"))
+                    .reservedCount(rs.getInt("reserved_count"))
+                    .totalCount(rs.getInt("total_count"))
+                    .build();
+
+            long cents = pricingService.calculateDynamicPricingCents(inventory, simulation.context(), simulation.chain(), pass);
+            prices.add(new SimulatedPriceDto(roomSnapshot.roomId(), date, rs.getBigDecimal("price"),
+                    BigDecimal.valueOf(cents, FixedPointPricingEngine.CENTS_SCALE)));
+        });
+        return prices;
+    }
+
+    record RoomSnapshot(Long roomId, BigDecimal basePrice) {
+    }
+
+    public record PriceSimulation(Long hotelId, List<RoomSnapshot> rooms, LocalDate startDate, LocalDate endDate,
+                                  BigDecimal surgeFactor, Map<LocalDate, BigDecimal> surgeFactors,
+                                  PricingContext context, PricingRuleChain chain) {
+
+        BigDecimal surgeFactorFor(LocalDate date, BigDecimal stored) {
+            BigDecimal override = surgeFactors.get(date);
+            if (override != null) {
+                return override;
+            }
+            return surgeFactor == null ? stored : surgeFactor;
+        }
+    }
+}
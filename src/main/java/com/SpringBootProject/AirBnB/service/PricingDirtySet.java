@@ -0,0 +1,100 @@
+package com.SpringBootProject.AirBnB.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set of (room, date) keys whose price is stale, kept in the pricing_dirty_key table so marks survive restarts
+ * and are shared by every node. Marks are written in the caller's transaction, so a rolled back booking
+ * leaves nothing behind.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PricingDirtySet {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public int markRoomDates(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.update("""
+                INSERT INTO pricing_dirty_key (room_id, date)
+                SELECT :roomId, CAST(d AS date)
+                FROM generate_series(CAST(:startDate AS date), CAST(:endDate AS date), interval '1 day') AS d
+                ON CONFLICT (room_id, date) DO NOTHING
+                """, new MapSqlParameterSource("roomId", roomId)
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate));
+    }
+
+    // Every night of the given bookings, used when their reservation is released
+    public int markBookings(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("""
+                INSERT INTO pricing_dirty_key (room_id, date)
+                SELECT DISTINCT b.room_id, CAST(d AS date)
+                FROM booking b
+                CROSS JOIN LATERAL generate_series(CAST(b.check_in_date AS date), CAST(b.check_out_date AS date),
+                                                   interval '1 day') AS d
+                WHERE b.id IN (:bookingIds)
+                ON CONFLICT (room_id, date) DO NOTHING
+                """, new MapSqlParameterSource("bookingIds", bookingIds));
+    }
+
+    // One date of every active room, used when a date moves into a pricing window
+    public int markDate(LocalDate date) {
+        return jdbcTemplate.update("""
+                INSERT INTO pricing_dirty_key (room_id, date)
+                SELECT i.room_id, i.date
+                FROM inventory i
+                JOIN hotel h ON h.id = i.hotel_id
+                JOIN room r ON r.id = i.room_id
+                WHERE i.date = :date
+                AND h.active = true
+                AND r.active = true
+                ON CONFLICT (room_id, date) DO NOTHING
+                """, new MapSqlParameterSource("date", date));
+    }
+
+    // Removes and returns the oldest keys, must run in the transaction that reprices them so a failure puts them back
+    public List<DirtyKey> drain(int limit) {
+        return jdbcTemplate.query("""
+                DELETE FROM pricing_dirty_key k
+                USING (SELECT room_id, date FROM pricing_dirty_key
+                       ORDER BY marked_at
+                       LIMIT :limit
+                       FOR UPDATE SKIP LOCKED) AS batch
+                WHERE k.room_id = batch.room_id
+                AND k.date = batch.date
+                RETURNING k.room_id, k.date
+                """, new MapSqlParameterSource("limit", limit),
+                (rs, rowNum) -> new DirtyKey(rs.getLong("room_id"), rs.getDate("date").toLocalDate()));
+    }
+
+    // Same as drain, limited to the given rooms
+    public List<DirtyKey> drainRooms(Collection<Long> roomIds, int limit) {
+        return jdbcTemplate.query("""
+                DELETE FROM pricing_dirty_key k
+                USING (SELECT room_id, date FROM pricing_dirty_key
+                       WHERE room_id IN (:roomIds)
+                       ORDER BY marked_at
+                       LIMIT :limit
+                       FOR UPDATE SKIP LOCKED) AS batch
+                WHERE k.room_id = batch.room_id
+                AND k.date = batch.date
+                RETURNING k.room_id, k.date
+                """, new MapSqlParameterSource("roomIds", roomIds).addValue("limit", limit),
+                (rs, rowNum) -> new DirtyKey(rs.getLong("room_id"), rs.getDate("date").toLocalDate()));
+    }
+
+    public record DirtyKey(Long roomId, LocalDate date) {
+    }
+}
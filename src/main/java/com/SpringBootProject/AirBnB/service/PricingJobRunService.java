@@ -0,0 +1,171 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.dto.PricingJobRunDto;
+import com.SpringBootProject.AirBnB.entity.enums.PricingJobStatus;
+import com.SpringBootProject.AirBnB.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs of the nightly price sweep and their per partition checkpoints. A checkpoint is written in the
+ * transaction that prices its hotel, so after a restart a partition resumes exactly after the last
+ * committed hotel, without repricing or skipping any.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PricingJobRunService {
+
+    private static final String RUN_SUMMARY_QUERY = """
+            SELECT r.id, r.run_key, r.status, r.started_at, r.finished_at, r.hotels_total,
+                   EXTRACT(EPOCH FROM COALESCE(r.finished_at, now()) - r.started_at) AS elapsed_seconds,
+                   COUNT(c.partition_index) AS partitions,
+                   COUNT(c.completed_at) AS partitions_completed,
+                   COALESCE(SUM(c.hotels_priced), 0) AS hotels_priced,
+                   COALESCE(SUM(c.rows_written), 0) AS rows_written,
+                   COALESCE(SUM(c.rows_skipped), 0) AS rows_skipped
+            FROM pricing_job_run r
+            LEFT JOIN pricing_job_checkpoint c ON c.run_id = r.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Latest run still marked running, older ones are abandoned so a broken run is not resumed forever
+    public Optional<PricingJobRun> findResumableRun(Duration maxAge) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        int abandoned = jdbcTemplate.update(
+                "UPDATE pricing_job_run SET status = 'ABANDONED', finished_at = now() WHERE status = 'RUNNING' AND started_at < ?",
+                cutoff);
+        if (abandoned > 0) {
+            log.warn("Abandoned {} price update runs started before {}", abandoned, cutoff);
+        }
+        return jdbcTemplate.query(
+                "SELECT * FROM pricing_job_run WHERE status = 'RUNNING' ORDER BY started_at DESC LIMIT 1",
+                PricingJobRunService::mapRun).stream().findFirst();
+    }
+
+    // Nodes firing the same run key join the run the first one created, with its hotel id bounds
+    public PricingJobRun startRun(String runKey, long maxHotelId, long partitionSize) {
+        jdbcTemplate.update("""
+                INSERT INTO pricing_job_run (run_key, status, max_hotel_id, partition_size, hotels_total)
+                SELECT ?, 'RUNNING', ?, ?, COUNT(*) FROM hotel WHERE id <= ?
+                ON CONFLICT (run_key) DO NOTHING
+                """, runKey, maxHotelId, partitionSize, maxHotelId);
+        PricingJobRun run = jdbcTemplate.queryForObject(
+                "SELECT * FROM pricing_job_run WHERE run_key = ?", PricingJobRunService::mapRun, runKey);
+
+        List<Object[]> partitions = new ArrayList<>();
+        for (long fromId = 0; fromId < run.maxHotelId(); fromId += run.partitionSize()) {
+            partitions.add(new Object[]{run.id(), partitions.size(), fromId,
+                    Math.min(fromId + run.partitionSize(), run.maxHotelId()), fromId});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO pricing_job_checkpoint (run_id, partition_index, from_id, to_id, last_hotel_id)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (run_id, partition_index) DO NOTHING
+                """, partitions);
+        return run;
+    }
+
+    public List<Checkpoint> findPendingCheckpoints(long runId) {
+        return jdbcTemplate.query("""
+                SELECT partition_index, from_id, to_id, last_hotel_id FROM pricing_job_checkpoint
+                WHERE run_id = ? AND completed_at IS NULL
+                ORDER BY partition_index
+                """, (rs, rowNum) -> new Checkpoint(rs.getInt("partition_index"), rs.getLong("from_id"),
+                rs.getLong("to_id"), rs.getLong("last_hotel_id")), runId);
+    }
+
+    // Called inside the transaction of the hotel it records
+    public void recordHotel(long runId, int partitionIndex, long hotelId, long rowsWritten, long rowsSkipped) {
+        jdbcTemplate.update("""
+                UPDATE pricing_job_checkpoint
+                SET last_hotel_id = ?, hotels_priced = hotels_priced + 1,
+                    rows_written = rows_written + ?, rows_skipped = rows_skipped + ?, updated_at = now()
+                WHERE run_id = ? AND partition_index = ?
+                """, hotelId, rowsWritten, rowsSkipped, runId, partitionIndex);
+    }
+
+    public void completePartition(long runId, int partitionIndex) {
+        jdbcTemplate.update(
+                "UPDATE pricing_job_checkpoint SET completed_at = now(), updated_at = now() WHERE run_id = ? AND partition_index = ?",
+                runId, partitionIndex);
+    }
+
+    // Only the node that sees the last partition complete finishes the run
+    public boolean finishRunIfComplete(long runId) {
+        return jdbcTemplate.update("""
+                UPDATE pricing_job_run SET status = 'COMPLETED', finished_at = now()
+                WHERE id = ? AND status = 'RUNNING'
+                AND NOT EXISTS (SELECT 1 FROM pricing_job_checkpoint WHERE run_id = ? AND completed_at IS NULL)
+                """, runId, runId) > 0;
+    }
+
+    public List<PricingJobRunDto> getRecentRuns(int limit) {
+        return jdbcTemplate.query(RUN_SUMMARY_QUERY + " GROUP BY r.id ORDER BY r.started_at DESC LIMIT ?",
+                PricingJobRunService::mapSummary, limit);
+    }
+
+    public PricingJobRunDto getRunById(Long runId) {
+        return jdbcTemplate.query(RUN_SUMMARY_QUERY + " WHERE r.id = ? GROUP BY r.id",
+                        PricingJobRunService::mapSummary, runId)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Pricing job run not found with id: " + runId));
+    }
+
+    // Rates are over the wall clock time of the run, including any time it spent waiting for a restart
+    private static PricingJobRunDto mapSummary(ResultSet rs, int rowNum) throws SQLException {
+        PricingJobStatus status = PricingJobStatus.valueOf(rs.getString("status"));
+        double elapsedSeconds = Math.max(rs.getDouble("elapsed_seconds"), 1);
+        long hotelsTotal = rs.getLong("hotels_total");
+        long hotelsPriced = rs.getLong("hotels_priced");
+        long rowsWritten = rs.getLong("rows_written");
+        long rowsSkipped = rs.getLong("rows_skipped");
+        double hotelsPerSecond = hotelsPriced / elapsedSeconds;
+
+        LocalDateTime estimatedFinishAt = null;
+        if (status == PricingJobStatus.RUNNING && hotelsPriced > 0) {
+            long secondsLeft = (long) Math.ceil(Math.max(hotelsTotal - hotelsPriced, 0) / hotelsPerSecond);
+            estimatedFinishAt = LocalDateTime.now().plusSeconds(secondsLeft);
+        }
+
+        return new PricingJobRunDto(
+                rs.getLong("id"),
+                rs.getString("run_key"),
+                status,
+                rs.getObject("started_at", LocalDateTime.class),
+                rs.getObject("finished_at", LocalDateTime.class),
+                rs.getInt("partitions"),
+                rs.getInt("partitions_completed"),
+                hotelsTotal,
+                hotelsPriced,
+                rowsWritten,
+                rowsSkipped,
+                hotelsPerSecond,
+                (rowsWritten + rowsSkipped) / elapsedSeconds,
+                estimatedFinishAt);
+    }
+
+    private static PricingJobRun mapRun(ResultSet rs, int rowNum) throws SQLException {
+        return new PricingJobRun(rs.getLong("id"), rs.getString("run_key"),
+                rs.getLong("max_hotel_id"), rs.getLong("partition_size"));
+    }
+
+    public record PricingJobRun(long id, String runKey, long maxHotelId, long partitionSize) {
+    }
+
+    // Hotels with fromId < id <= toId, the partition resumes after lastHotelId
+    public record Checkpoint(int partitionIndex, long fromId, long toId, long lastHotelId) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.entity.enums.PricingRuleType;
+import com.SpringBootProject.AirBnB.strategy.HolidayRule;
+import com.SpringBootProject.AirBnB.strategy.OccupancyRule;
+import com.SpringBootProject.AirBnB.strategy.PricingRule;
+import com.SpringBootProject.AirBnB.strategy.PricingRuleSet;
+import com.SpringBootProject.AirBnB.strategy.SurgeRule;
+import com.SpringBootProject.AirBnB.strategy.UrgencyRule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the enabled rows of pricing_rule into a PricingRuleSet and swaps it in as a whole. Rows without a
+ * city make the default chain, a city with rows of its own uses only those. Without any default rows the
+ * built-in surge -> urgency -> holiday chain is used.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PricingRuleRegistry {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile PricingRuleSet rules = PricingRuleSet.defaults();
+
+    public PricingRuleSet current() {
+        return rules;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reload();
+    }
+
+    // An invalid rule keeps the previous chains for every city
+    @Scheduled(fixedDelayString = "${pricing.rules.reload-ms:60000}",
+            initialDelayString = "${pricing.rules.reload-ms:60000}")
+    public void reload() {
+        try {
+            List<PricingRule> defaultRules = new ArrayList<>();
+            Map<String, List<PricingRule>> cityRules = new HashMap<>();
+            jdbcTemplate.query("""
+                    SELECT city, rule_type, multiplier, threshold
+                    FROM pricing_rule
+                    WHERE enabled = true
+                    ORDER BY city NULLS FIRST, position
+                    """, (RowCallbackHandler) rs -> {
+                PricingRule rule = compile(PricingRuleType.valueOf(rs.getString("rule_type")),
+                        rs.getBigDecimal("multiplier"), rs.getBigDecimal("threshold"));
+                String city = rs.getString("city");
+                if (city == null) {
+                    defaultRules.add(rule);
+                } else {
+                    cityRules.computeIfAbsent(city, c -> new ArrayList<>()).add(rule);
+                }
+            });
+
+            rules = new PricingRuleSet(defaultRules.isEmpty() ? PricingRuleSet.defaultRules() : defaultRules, cityRules);
+            log.info("Pricing rules loaded, default chain of {} rules and {} city overrides",
+                    rules.chainFor(null).size(), rules.cityCount());
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the pricing rules, keeping the previous ones", e);
+        }
+    }
+
+    private static PricingRule compile(PricingRuleType type, BigDecimal multiplier, BigDecimal threshold) {
+        return switch (type) {
+            case SURGE -> new SurgeRule();
+            case URGENCY -> new UrgencyRule(required(type, "multiplier", multiplier),
+                    threshold == null ? PricingRuleSet.DEFAULT_URGENCY_WINDOW_DAYS : threshold.intValueExact());
+            case HOLIDAY -> new HolidayRule(required(type, "multiplier", multiplier));
+            case OCCUPANCY -> new OccupancyRule(required(type, "multiplier", multiplier),
+                    required(type, "threshold", threshold).doubleValue());
+        };
+    }
+
+    private static BigDecimal required(PricingRuleType type, String column, BigDecimal value) {
+        if (value == null) {
+            throw new IllegalArgumentException(type + " rule needs a " + column);
+        }
+        return value;
+    }
+}
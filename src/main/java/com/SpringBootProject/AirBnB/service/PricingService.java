@@ -1,24 +1,44 @@
 package com.SpringBootProject.AirBnB.service;
 
 import com.SpringBootProject.AirBnB.entity.Inventory;
-import com.SpringBootProject.AirBnB.strategy.PricingStrategy;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.SpringBootProject.AirBnB.strategy.FixedPointPricingEngine;
+import com.SpringBootProject.AirBnB.strategy.PricingContext;
+import com.SpringBootProject.AirBnB.strategy.PricingPass;
+import com.SpringBootProject.AirBnB.strategy.PricingRuleChain;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Service
 
 public class PricingService {
 
-    private final PricingStrategy pricingStrategy;
+    private final FixedPointPricingEngine pricingEngine;
+    private final HolidayCalendar holidayCalendar;
+    private final PricingRuleRegistry pricingRuleRegistry;
 
-    public PricingService(@Qualifier("holidayPrice")PricingStrategy pricingStrategy) {
-        this.pricingStrategy = pricingStrategy;
+    public PricingService(FixedPointPricingEngine pricingEngine, HolidayCalendar holidayCalendar,
+                          PricingRuleRegistry pricingRuleRegistry) {
+        this.pricingEngine = pricingEngine;
+        this.holidayCalendar = holidayCalendar;
+        this.pricingRuleRegistry = pricingRuleRegistry;
     }
 
-    public BigDecimal calculateDynamicPricing(Inventory inventory) {
+    // Unrounded BigDecimal price, the caller resolves the context once per run and the chain once per city
+    public BigDecimal calculateDynamicPricing(Inventory inventory, PricingContext context, PricingRuleChain chain) {
+        return chain.price(inventory, context);
+    }
+
+    // One context per pricing run, the whole run sees the same holiday calendar and rule chains
+    public PricingContext createContext() {
+        return PricingContext.of(LocalDate.now(), holidayCalendar.current(), pricingRuleRegistry.current());
+    }
 
-        return pricingStrategy.calculatePrice(inventory);
+    // Same price as calculateDynamicPricing rounded to cents, without allocating per row. The pass belongs to
+    // the calling thread and caches the conversions of its rooms
+    public long calculateDynamicPricingCents(Inventory inventory, PricingContext context, PricingRuleChain chain,
+                                             PricingPass pass) {
+        return pricingEngine.priceCents(inventory, context, chain, pass);
     }
 }
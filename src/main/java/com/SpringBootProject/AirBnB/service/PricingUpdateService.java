@@ -1,24 +1,46 @@
 package com.SpringBootProject.AirBnB.service;
 
 import com.SpringBootProject.AirBnB.entity.Hotel;
-import com.SpringBootProject.AirBnB.entity.HotelMinPrice;
 import com.SpringBootProject.AirBnB.entity.Inventory;
 import com.SpringBootProject.AirBnB.repository.HotelMinPriceRepository;
 import com.SpringBootProject.AirBnB.repository.HotelRepository;
 import com.SpringBootProject.AirBnB.repository.InventoryRepository;
+import com.SpringBootProject.AirBnB.strategy.FixedPointPricingEngine;
+import com.SpringBootProject.AirBnB.strategy.PricingContext;
+import com.SpringBootProject.AirBnB.strategy.PricingPass;
+import com.SpringBootProject.AirBnB.strategy.PricingRuleChain;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,81 +50,404 @@ import java.util.stream.Collectors;
 public class PricingUpdateService {
 
 
-    //Schedular to update the inventory and HotelMinPrice tables every hour
+    //Schedulers to update the inventory and HotelMinPrice tables, a nightly full sweep and a frequent drain of the dirty keys
    private final HotelRepository hotelrepository;
    private final InventoryRepository inventoryRepository;
    private final HotelMinPriceRepository hotelMinPriceRepository;
    private final PricingService pricingservice;
+   private final HotelSearchCache hotelSearchCache;
+   private final TransactionTemplate transactionTemplate;
+   private final MeterRegistry meterRegistry;
 
+   private final JdbcTemplate jdbcTemplate;
+   private final PricingDirtySet pricingDirtySet;
+   private final PricingRuleRegistry pricingRuleRegistry;
+   private final JobLeaseService jobLeaseService;
+   private final PricingJobRunService pricingJobRunService;
 
-@Scheduled(cron = "0 0 * * * *")
+   private final AtomicBoolean running = new AtomicBoolean();
+   private final AtomicInteger partitionsRemaining = new AtomicInteger();
+   private final LongAdder rowsWritten = new LongAdder();
+   private final LongAdder rowsSkipped = new LongAdder();
+
+   @Value("${pricing.update.partition-size:1000}")
+   private long partitionSize;
+
+   @Value("${pricing.update.batch-size:100}")
+   private int batchSize;
+
+   @Value("${pricing.update.write-batch-size:500}")
+   private int writeBatchSize;
+
+   @Value("${pricing.update.parallelism:4}")
+   private int parallelism;
+
+   @Value("${pricing.update.max-attempts:3}")
+   private int maxAttempts;
+
+   @Value("${pricing.dirty.batch-size:2000}")
+   private int dirtyBatchSize;
+
+   @Value("${pricing.update.partition-lease-seconds:300}")
+   private long partitionLeaseSeconds;
+
+   @Value("${pricing.update.max-run-minutes:120}")
+   private long maxRunMinutes;
+
+   @Value("${pricing.update.resume-hours:24}")
+   private long resumeHours;
+
+   @Value("${pricing.update.cron:0 30 2 * * *}")
+   private String updateCron;
+
+   @Value("${pricing.dirty.rollover-cron:0 1 0 * * *}")
+   private String rolloverCron;
+
+   @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+   private int connectionPoolSize;
+
+   @PostConstruct
+   void registerMetrics() {
+       meterRegistry.gauge("pricing.update.partitions.remaining", partitionsRemaining);
+   }
+
+
+    // A run interrupted by a restart is picked up as soon as the node is back instead of at the next firing
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun()
+    {
+        pricingJobRunService.findResumableRun(Duration.ofHours(resumeHours)).ifPresent(run -> {
+            log.info("Resuming price update run {}", run.runKey());
+            Thread.ofVirtual().name("pricing-resume").start(() -> runPriceUpdate(null));
+        });
+    }
+
+    // Safety net for anything the dirty set missed, the incremental repricer keeps prices current during the day
+@Scheduled(cron = "${pricing.update.cron:0 30 2 * * *}")
     public void updatePrices()
     {
-      log.info("Starting price update job");
-      int page = 0 ;
-      int batchSize = 100;
-
-      while(true)
-      {
-          log.info("Processing page: {}", page);
-          Page<Hotel> hotelPage = hotelrepository.findAll(PageRequest.of(page, batchSize));
-          if(hotelPage.isEmpty()){
-              log.info("No more hotels to process. Exiting.");
-              break;
+        // A run waits for the partitions of other nodes for up to max-run-minutes, so it gets a thread of its own
+        // instead of holding one of the scheduler threads the other jobs share. The key is taken at the firing.
+        String fireKey = jobLeaseService.fireKey("pricing.update", updateCron);
+        Thread.ofVirtual().name("pricing-update").start(() -> runPriceUpdate(fireKey));
+    }
+
+    // Only a firing passes a key for a new run, the fire time that is the same on every node; the resume passes null
+    private void runPriceUpdate(String newRunKey)
+    {
+      if (!running.compareAndSet(false, true)) {
+          log.info("Price update job already running on this node");
+          return;
+      }
+      try {
+          Long maxHotelId = hotelrepository.findMaxId();
+          if(maxHotelId == null){
+              log.info("No hotels to process. Exiting.");
+              return;
           }
-          hotelPage.forEach(this::updateHotelPrices);
+          // An unfinished run is resumed from its checkpoints, otherwise every node firing now joins the same new run
+          String runKey = pricingJobRunService.findResumableRun(Duration.ofHours(resumeHours))
+                  .map(PricingJobRunService.PricingJobRun::runKey)
+                  .orElse(newRunKey);
+          if (runKey == null) {
+              log.info("Price update run already finished, nothing to resume");
+              return;
+          }
+          updatePrices(pricingJobRunService.startRun(runKey, maxHotelId, partitionSize));
+      } finally {
+          running.set(false);
+      }
+    }
+
+    private void updatePrices(PricingJobRunService.PricingJobRun run)
+    {
+      // Every worker holds a connection while it prices a hotel, half the pool stays free for requests
+      int workers = Math.max(1, Math.min(parallelism, connectionPoolSize / 2));
+      List<PricingJobRunService.Checkpoint> pending = pricingJobRunService.findPendingCheckpoints(run.id());
+      log.info("Starting price update run {} with {} pending partitions on {} workers", run.runKey(), pending.size(), workers);
+      rowsWritten.reset();
+      rowsSkipped.reset();
+      long startTime = System.nanoTime();
+      long deadline = startTime + Duration.ofMinutes(maxRunMinutes).toNanos();
 
-         page++;
+      int priced = 0;
+      Set<Integer> failed = new HashSet<>();
+      while (!pending.isEmpty()) {
+          partitionsRemaining.set(pending.size());
+          List<PricingJobRunService.Checkpoint> round = pending;
+          List<Future<PartitionOutcome>> results;
+          // Every node runs the job, partitions are leased so each one is priced by one node
+          try (ExecutorService executor = Executors.newFixedThreadPool(workers,
+                  Thread.ofVirtual().name("pricing-worker-", 0).factory())) {
+              results = executor.invokeAll(round.stream()
+                      .map(checkpoint -> (Callable<PartitionOutcome>) () -> updatePartition(run, checkpoint))
+                      .toList());
+          } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              log.warn("Price update run {} interrupted", run.runKey());
+              return;
+          }
+          for (int i = 0; i < results.size(); i++) {
+              // An error that escaped the partition's retries fails only that partition
+              Future<PartitionOutcome> result = results.get(i);
+              PartitionOutcome outcome = result.state() == Future.State.SUCCESS ? result.resultNow() : PartitionOutcome.FAILED;
+              if (outcome == PartitionOutcome.PRICED) {
+                  priced++;
+              } else if (outcome == PartitionOutcome.FAILED) {
+                  failed.add(round.get(i).partitionIndex());
+              }
+          }
+
+          // Partitions held by other nodes are waited for, and taken over from their checkpoint if their node
+          // stops renewing. Partitions that failed here are left to the other nodes.
+          pending = pricingJobRunService.findPendingCheckpoints(run.id()).stream()
+                  .filter(checkpoint -> !failed.contains(checkpoint.partitionIndex()))
+                  .toList();
+          if (pending.isEmpty() || System.nanoTime() > deadline) {
+              break;
+          }
+          try {
+              Thread.sleep(Duration.ofSeconds(partitionLeaseSeconds).dividedBy(2));
+          } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              return;
+          }
       }
-      log.info("Finished price update job");
+
+      boolean finished = pricingJobRunService.finishRunIfComplete(run.id());
+      partitionsRemaining.set(0);
+      meterRegistry.timer("pricing.update.run").record(Duration.ofNanos(System.nanoTime() - startTime));
+      log.info("{} price update run {} in {} ms, priced {} partitions here, {} failed, {} left unfinished, {} inventory rows written and {} unchanged",
+              finished ? "Finished" : "Left", run.runKey(), (System.nanoTime() - startTime) / 1_000_000,
+              priced, failed.size(), pending.size(), rowsWritten.sum(), rowsSkipped.sum());
 
     }
 
-    private void updateHotelPrices(Hotel hotel)
+    // Starts from the partition's checkpoint, retries resume after the last hotel that was committed so a
+    // partition never reprices a hotel twice
+    private PartitionOutcome updatePartition(PricingJobRunService.PricingJobRun run, PricingJobRunService.Checkpoint checkpoint)
+    {
+        int partitionIndex = checkpoint.partitionIndex();
+        String leaseName = run.runKey() + "#" + partitionIndex;
+        Duration leaseTtl = Duration.ofSeconds(partitionLeaseSeconds);
+        String partitionTag = String.valueOf(partitionIndex);
+        long lastHotelId = checkpoint.lastHotelId();
+        int hotelsPriced = 0;
+
+        for (int attempt = 1; ; attempt++) {
+            long startTime = System.nanoTime();
+            try {
+                // Inside the retry, a failure to reach job_lease is a failed attempt like any other
+                if (!jobLeaseService.tryAcquire(leaseName, leaseTtl)) {
+                    return PartitionOutcome.SKIPPED;
+                }
+                while (true) {
+                    List<Hotel> hotels = hotelrepository.findIdRangeAfter(lastHotelId, checkpoint.toId(),
+                            PageRequest.of(0, batchSize));
+                    if (hotels.isEmpty()) {
+                        break;
+                    }
+                    // Renewed once per batch, a node that lost its lease leaves the partition to the new holder
+                    if (!jobLeaseService.tryAcquire(leaseName, leaseTtl)) {
+                        log.warn("Lost the lease of partition {} after hotel {}", partitionIndex, lastHotelId);
+                        return PartitionOutcome.SKIPPED;
+                    }
+                    for (Hotel hotel : hotels) {
+                        PriceWriteResult result = transactionTemplate.execute(status -> {
+                            PriceWriteResult hotelResult = updateHotelPrices(hotel);
+                            pricingJobRunService.recordHotel(run.id(), partitionIndex, hotel.getId(),
+                                    hotelResult.written(), hotelResult.skipped());
+                            return hotelResult;
+                        });
+                        lastHotelId = hotel.getId();
+                        hotelsPriced++;
+                        meterRegistry.counter("pricing.update.hotels", "partition", partitionTag).increment();
+                        if (result != null) {
+                            rowsWritten.add(result.written());
+                            rowsSkipped.add(result.skipped());
+                            meterRegistry.counter("pricing.update.inventory.rows", "result", "written").increment(result.written());
+                            meterRegistry.counter("pricing.update.inventory.rows", "result", "skipped").increment(result.skipped());
+                        }
+                    }
+                }
+
+                pricingJobRunService.completePartition(run.id(), partitionIndex);
+                jobLeaseService.complete(leaseName);
+                recordPartition(partitionTag, "success", startTime);
+                partitionsRemaining.decrementAndGet();
+                log.info("Priced partition {} (hotels {}..{}) with {} hotels from hotel {} in {} attempt(s)",
+                        partitionIndex, checkpoint.fromId() + 1, checkpoint.toId(), hotelsPriced,
+                        checkpoint.lastHotelId() + 1, attempt);
+                return PartitionOutcome.PRICED;
+            } catch (RuntimeException e) {
+                recordPartition(partitionTag, "failure", startTime);
+                meterRegistry.counter("pricing.update.partition.failures", "partition", partitionTag).increment();
+                if (attempt >= maxAttempts) {
+                    // Released so another node can try it
+                    jobLeaseService.release(leaseName);
+                    partitionsRemaining.decrementAndGet();
+                    log.error("Giving up on partition {} after {} attempts, stopped after hotel {}",
+                            partitionIndex, attempt, lastHotelId, e);
+                    return PartitionOutcome.FAILED;
+                }
+                log.warn("Partition {} failed after hotel {} on attempt {}, retrying",
+                        partitionIndex, lastHotelId, attempt, e);
+            }
+        }
+    }
+
+    // At midnight the last night of every urgency window changes price for every room
+    @Scheduled(cron = "${pricing.dirty.rollover-cron:0 1 0 * * *}")
+    public void markUrgencyWindowRollover()
+    {
+        jobLeaseService.runOnce("pricing.rollover", rolloverCron, Duration.ofMinutes(10), () -> {
+            for (int windowDays : pricingRuleRegistry.current().urgencyWindowDays()) {
+                LocalDate enteringWindow = LocalDate.now().plusDays(windowDays - 1);
+                int marked = pricingDirtySet.markDate(enteringWindow);
+                log.info("Marked {} rooms dirty for {} entering the urgency window", marked, enteringWindow);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${pricing.dirty.interval-ms:30000}")
+    public void updateDirtyPrices()
+    {
+        updateDirtyPrices(pricingDirtySet::drain);
+    }
+
+    // Targeted pass for rooms that just changed, keys of other rooms are left to the scheduled drain
+    public void updateDirtyPricesForRooms(Collection<Long> roomIds)
+    {
+        if (!roomIds.isEmpty()) {
+            updateDirtyPrices(limit -> pricingDirtySet.drainRooms(roomIds, limit));
+        }
+    }
+
+    private void updateDirtyPrices(IntFunction<List<PricingDirtySet.DirtyKey>> drain)
+    {
+        long startTime = System.nanoTime();
+        int keysDrained = 0;
+
+        while (true) {
+            Integer drained = transactionTemplate.execute(status -> updateDirtyBatch(drain.apply(dirtyBatchSize)));
+            if (drained == null || drained == 0) {
+                break;
+            }
+            keysDrained += drained;
+            if (drained < dirtyBatchSize) {
+                break;
+            }
+        }
+
+        if (keysDrained > 0) {
+            meterRegistry.counter("pricing.dirty.keys.drained").increment(keysDrained);
+            meterRegistry.timer("pricing.dirty.run").record(Duration.ofNanos(System.nanoTime() - startTime));
+            log.info("Repriced {} dirty room dates in {} ms", keysDrained, (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
+    // Reprices only the drained (room, date) keys, then the min prices of the touched hotels between their first and last dirty date
+    private int updateDirtyBatch(List<PricingDirtySet.DirtyKey> keys)
+    {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Set<LocalDate>> datesByRoom = keys.stream().collect(Collectors.groupingBy(
+                PricingDirtySet.DirtyKey::roomId, Collectors.mapping(PricingDirtySet.DirtyKey::date, Collectors.toSet())));
+        LocalDate startDate = keys.stream().map(PricingDirtySet.DirtyKey::date).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate endDate = keys.stream().map(PricingDirtySet.DirtyKey::date).max(Comparator.naturalOrder()).orElseThrow();
+
+        List<Inventory> inventoryList = inventoryRepository.findByRoomIdsAndDateBetween(datesByRoom.keySet(), startDate, endDate)
+                .stream()
+                .filter(inventory -> datesByRoom.get(inventory.getRoom().getId()).contains(inventory.getDate()))
+                .toList();
+        PriceWriteResult result = updateInventoryPrices(inventoryList);
+        meterRegistry.counter("pricing.update.inventory.rows", "result", "written").increment(result.written());
+        meterRegistry.counter("pricing.update.inventory.rows", "result", "skipped").increment(result.skipped());
+
+        // Hotels are locked in id order so two drains touching the same hotels cannot deadlock
+        inventoryList.stream()
+                .collect(Collectors.groupingBy(Inventory::getHotel,
+                        () -> new TreeMap<>(Comparator.comparing(Hotel::getId)),
+                        Collectors.mapping(Inventory::getDate, Collectors.toList())))
+                .forEach((hotel, dates) -> updateHotelMinPrice(hotel,
+                        dates.stream().min(Comparator.naturalOrder()).orElseThrow(),
+                        dates.stream().max(Comparator.naturalOrder()).orElseThrow()));
+        return keys.size();
+    }
+
+    private void recordPartition(String partitionTag, String outcome, long startTime)
+    {
+        meterRegistry.timer("pricing.update.partition", "partition", partitionTag, "outcome", outcome)
+                .record(Duration.ofNanos(System.nanoTime() - startTime));
+    }
+
+    private PriceWriteResult updateHotelPrices(Hotel hotel)
     {
         log.info("Updating prices for hotel: {}", hotel.getId());
         LocalDate startDate = LocalDate.now();
         LocalDate endDate = startDate.plusYears(1);
 
-       List<Inventory> inventoryList = inventoryRepository.findByHotelDateBetween(hotel, startDate, endDate);
+       List<Inventory> inventoryList = inventoryRepository.findByHotelAndDateBetween(hotel, startDate, endDate);
         log.info("Found {} inventory items to update for hotel: {}", inventoryList.size(), hotel.getId());
 
-       updateInventoryPrices(inventoryList);
-       updateHotelMinPrice(hotel,inventoryList,startDate,endDate);
+       PriceWriteResult result = updateInventoryPrices(inventoryList);
+       updateHotelMinPrice(hotel,startDate,endDate);
        log.info("Finished updating prices for hotel: {}", hotel.getId());
-
+       return result;
 
     }
 
-    private void updateHotelMinPrice(Hotel hotel, List<Inventory> inventoryList, LocalDate startDate, LocalDate endDate) {
+    // Upsert keyed on (hotel_id, date), the daily min is grouped in SQL instead of one lookup per date
+    private void updateHotelMinPrice(Hotel hotel, LocalDate startDate, LocalDate endDate) {
         log.info("Updating hotel min price for hotel: {}", hotel.getId());
-        Map<LocalDate, BigDecimal> dailyMinPrices = inventoryList.stream()
-                .collect(Collectors.groupingBy(
-                   Inventory::getDate,
-                  Collectors.mapping(Inventory::getPrice,Collectors.minBy(Comparator.naturalOrder()))
-                  ))
-                .entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().orElse(BigDecimal.ZERO)));
-        log.info("Calculated {} daily min prices for hotel: {}", dailyMinPrices.size(), hotel.getId());
-List<HotelMinPrice> hotelPrices = new ArrayList<>();
-dailyMinPrices.forEach((date,price) -> { HotelMinPrice hotelPrice = hotelMinPriceRepository.findByHotelAndDate(hotel,date)
-.orElse(new HotelMinPrice(hotel,date));
-hotelPrice.setPrice(price);
-hotelPrices.add(hotelPrice);
-});
-hotelMinPriceRepository.saveAll(hotelPrices);
-log.info("Saved {} hotel min prices for hotel: {}", hotelPrices.size(), hotel.getId());
-    }
-
-    private void updateInventoryPrices(List<Inventory> inventoryList) {
+        // The sweep, the dirty drain of every node and the booking listener can refresh the same hotel at once
+        hotelMinPriceRepository.lockHotelMinPrices(hotel.getId());
+        int upserted = hotelMinPriceRepository.upsertDailyMinPrices(hotel.getId(), startDate, endDate);
+        hotelMinPriceRepository.refreshCumulativePrices(hotel.getId(), startDate);
+        hotelSearchCache.invalidateCityAfterCommit(hotel.getCity());
+        log.info("Saved {} hotel min prices for hotel: {}", upserted, hotel.getId());
+    }
+
+    // Only rows whose rounded price changed are written, in JDBC batches instead of one save() per row
+    private PriceWriteResult updateInventoryPrices(List<Inventory> inventoryList) {
         log.info("Updating {} inventory items", inventoryList.size());
-        inventoryList.forEach(inventory->{
-            log.debug("Updating inventory item: {}", inventory.getId());
-            BigDecimal dynamicPrice = pricingservice.calculateDynamicPricing(inventory);
-            inventory.setPrice(dynamicPrice);
-            inventoryRepository.save(inventory);
-            log.debug("Saved inventory item: {}", inventory.getId());
+        List<Inventory> changed = new ArrayList<>();
+        PricingContext context = pricingservice.createContext();
+        PricingPass pass = new PricingPass();
+        // The chain is resolved once per city, the rows of one hotel share it
+        inventoryList.stream().collect(Collectors.groupingBy(Inventory::getCity)).forEach((city, cityInventory) -> {
+            PricingRuleChain chain = context.chainFor(city);
+            cityInventory.forEach(inventory->{
+                long dynamicPriceCents = pricingservice.calculateDynamicPricingCents(inventory, context, chain, pass);
+                if (dynamicPriceCents != pass.cents(inventory.getPrice())) {
+                    inventory.setPrice(BigDecimal.valueOf(dynamicPriceCents, FixedPointPricingEngine.CENTS_SCALE));
+                    changed.add(inventory);
+                }
+            });
         });
-        log.info("Finished updating inventory items");
+
+        // date is part of the key of the partitioned inventory table and lets Postgres prune to one partition
+        jdbcTemplate.batchUpdate("UPDATE inventory SET price = ? WHERE id = ? AND date = ?",
+                changed, writeBatchSize, (ps, inventory) -> {
+                    ps.setBigDecimal(1, inventory.getPrice());
+                    ps.setLong(2, inventory.getId());
+                    ps.setObject(3, inventory.getDate());
+                });
+
+        PriceWriteResult result = new PriceWriteResult(changed.size(), inventoryList.size() - changed.size());
+        log.info("Finished updating inventory items, {} written and {} unchanged", result.written(), result.skipped());
+        return result;
     }
+
+    private record PriceWriteResult(long written, long skipped) {
+    }
+
+    private enum PartitionOutcome {
+        PRICED,
+        SKIPPED,
+        FAILED
+    }
+
 }
@@ -0,0 +1,313 @@
+package com.SpringBootProject.AirBnB.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of the free room counts of every active room, one segment tree of min free rooms per room
+ * indexed by day offset. "Every night has at least N free rooms" is a range-min query, so search only needs
+ * the database for pricing and hydration.
+ * <p>
+ * Reservations and releases made on this node are applied after commit. Changes made by other nodes are
+ * picked up by the periodic rebuild, until then search can show a hotel that just sold out, which
+ * initializeBooking still rejects.
+ * </p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RoomAvailabilityIndex {
+
+    private static final String INVENTORY_QUERY = """
+            SELECT i.hotel_id, i.room_id, i.city, i.date, i.closed,
+                   i.total_count - i.booked_count - i.reserved_count AS free_count
+            FROM inventory i
+            JOIN hotel h ON h.id = i.hotel_id
+            JOIN room r ON r.id = i.room_id
+            WHERE h.active = true
+            AND r.active = true
+            AND i.date BETWEEN :startDate AND :endDate
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${inventory.horizon-days:365}")
+    private int horizonDays;
+
+    private volatile Snapshot snapshot;
+
+    // Rooms changed while a rebuild reads inventory, reloaded onto the new snapshot once it is swapped in.
+    // Null when no rebuild is running
+    private final Object rebuildLock = new Object();
+    private Set<Long> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.availability-index.refresh-ms:300000}",
+            initialDelayString = "${search.availability-index.refresh-ms:300000}")
+    public synchronized void rebuild() {
+        long startTime = System.nanoTime();
+        LocalDate baseDate = LocalDate.now();
+        // A month of slack so a rebuild that is a little late still covers the whole horizon
+        Snapshot newSnapshot = new Snapshot(baseDate.toEpochDay(), horizonDays + 31);
+
+        synchronized (rebuildLock) {
+            changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        }
+        try {
+            loadRooms(newSnapshot, INVENTORY_QUERY, new MapSqlParameterSource());
+        } catch (RuntimeException e) {
+            synchronized (rebuildLock) {
+                changedDuringRebuild = null;
+            }
+            throw e;
+        }
+        // Changes that find the set gone afterwards also find the new snapshot
+        Set<Long> changed;
+        synchronized (rebuildLock) {
+            snapshot = newSnapshot;
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+        }
+        // A change may or may not be in what the rebuild read, re-reading the room is right either way
+        reloadRooms(newSnapshot, changed);
+
+        log.info("Availability index rebuilt with {} rooms in {} ms, {} rooms changed during the rebuild",
+                newSnapshot.roomsById.size(), (System.nanoTime() - startTime) / 1_000_000, changed.size());
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    // Hotels of the city that have at least one room with roomsCount free rooms on every night from startDate to endDate
+    public Set<Long> findAvailableHotelIds(String city, LocalDate startDate, LocalDate endDate, int roomsCount) {
+        Snapshot current = snapshot;
+        Map<Long, RoomAvailability> rooms = current.roomsByCity.get(city);
+        if (rooms == null) {
+            return Set.of();
+        }
+
+        int from = current.offsetOf(startDate);
+        int to = current.offsetOf(endDate);
+        Set<Long> hotelIds = new HashSet<>();
+        for (RoomAvailability room : rooms.values()) {
+            if (!hotelIds.contains(room.hotelId) && room.minFree(from, to) >= roomsCount) {
+                hotelIds.add(room.hotelId);
+            }
+        }
+        return hotelIds;
+    }
+
+    // delta is negative for a reservation and positive for a release
+    public void adjustAfterCommit(Long roomId, LocalDate startDate, LocalDate endDate, int delta) {
+        afterCommit(() -> {
+            Snapshot current = snapshotForChange(Set.of(roomId));
+            RoomAvailability room = current == null ? null : current.roomsById.get(roomId);
+            if (room == null) {
+                return;
+            }
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                room.add(current.offsetOf(date), delta);
+            }
+        });
+    }
+
+    // Re-reads the given rooms from inventory, used when rows are created or released in bulk
+    public void reloadRoomsAfterCommit(Collection<Long> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(roomIds);
+        afterCommit(() -> {
+            Snapshot current = snapshotForChange(ids);
+            if (current != null) {
+                reloadRooms(current, ids);
+            }
+        });
+    }
+
+    // Records the rooms for a running rebuild before the snapshot is read, see rebuild()
+    private Snapshot snapshotForChange(Set<Long> roomIds) {
+        synchronized (rebuildLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.addAll(roomIds);
+            }
+            return snapshot;
+        }
+    }
+
+    // Loaded rooms replace the old trees, rooms without inventory left (deleted or deactivated) are dropped
+    private void reloadRooms(Snapshot target, Set<Long> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(roomIds);
+        loadRooms(target, INVENTORY_QUERY + " AND i.room_id IN (:roomIds)",
+                new MapSqlParameterSource("roomIds", ids))
+                .forEach(room -> ids.remove(room.roomId));
+        ids.forEach(target::removeRoom);
+    }
+
+    public void rebuildAfterCommit() {
+        afterCommit(this::rebuild);
+    }
+
+    private List<RoomAvailability> loadRooms(Snapshot target, String sql, MapSqlParameterSource parameters) {
+        parameters.addValue("startDate", LocalDate.ofEpochDay(target.baseEpochDay));
+        parameters.addValue("endDate", LocalDate.ofEpochDay(target.baseEpochDay + target.days - 1));
+
+        List<RoomAvailability> loaded = new ArrayList<>();
+        Map<Long, RoomAvailability> byId = new HashMap<>();
+        jdbcTemplate.query(sql, parameters, (RowCallbackHandler) rs -> {
+            RoomAvailability room = byId.computeIfAbsent(rs.getLong("room_id"), roomId -> {
+                RoomAvailability created = newRoom(rs, roomId, target.days);
+                loaded.add(created);
+                return created;
+            });
+            int free = rs.getBoolean("closed") ? RoomAvailability.UNAVAILABLE : rs.getInt("free_count");
+            room.set(target.offsetOf(rs.getDate("date").toLocalDate()), free);
+        });
+
+        loaded.forEach(room -> {
+            room.build();
+            target.putRoom(room);
+        });
+        return loaded;
+    }
+
+    private static RoomAvailability newRoom(ResultSet rs, Long roomId, int days) {
+        try {
+            return new RoomAvailability(roomId, rs.getLong("hotel_id"), rs.getString("city"), days);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read inventory row", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Snapshot {
+
+        private final long baseEpochDay;
+        private final int days;
+        private final Map<Long, RoomAvailability> roomsById = new ConcurrentHashMap<>();
+        private final Map<String, Map<Long, RoomAvailability>> roomsByCity = new ConcurrentHashMap<>();
+
+        private Snapshot(long baseEpochDay, int days) {
+            this.baseEpochDay = baseEpochDay;
+            this.days = days;
+        }
+
+        private int offsetOf(LocalDate date) {
+            long offset = date.toEpochDay() - baseEpochDay;
+            return offset < 0 || offset >= days ? -1 : (int) offset;
+        }
+
+        private void putRoom(RoomAvailability room) {
+            roomsById.put(room.roomId, room);
+            roomsByCity.computeIfAbsent(room.city, c -> new ConcurrentHashMap<>()).put(room.roomId, room);
+        }
+
+        private void removeRoom(Long roomId) {
+            RoomAvailability room = roomsById.remove(roomId);
+            Map<Long, RoomAvailability> cityRooms = room == null ? null : roomsByCity.get(room.city);
+            if (cityRooms != null) {
+                cityRooms.remove(roomId);
+            }
+        }
+    }
+
+    /**
+     * Iterative segment tree over the free room count of each day, leaves at tree[days + offset] and every
+     * inner node holding the min of its two children. Days without inventory or closed days hold UNAVAILABLE.
+     */
+    static final class RoomAvailability {
+
+        static final int UNAVAILABLE = -1_000_000;
+
+        private final long roomId;
+        private final long hotelId;
+        private final String city;
+        private final int days;
+        private final int[] tree;
+
+        RoomAvailability(long roomId, long hotelId, String city, int days) {
+            this.roomId = roomId;
+            this.hotelId = hotelId;
+            this.city = city;
+            this.days = days;
+            this.tree = new int[2 * days];
+            Arrays.fill(tree, UNAVAILABLE);
+        }
+
+        void set(int offset, int free) {
+            if (offset >= 0) {
+                tree[days + offset] = free;
+            }
+        }
+
+        void build() {
+            for (int i = days - 1; i >= 1; i--) {
+                tree[i] = Math.min(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        synchronized void add(int offset, int delta) {
+            if (offset < 0) {
+                return;
+            }
+            int i = days + offset;
+            tree[i] += delta;
+            for (i >>= 1; i >= 1; i >>= 1) {
+                tree[i] = Math.min(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        // Min free rooms over the inclusive offset range, UNAVAILABLE if any day falls outside the index
+        synchronized int minFree(int from, int to) {
+            if (from < 0 || to < 0 || from > to) {
+                return UNAVAILABLE;
+            }
+            int min = Integer.MAX_VALUE;
+            for (int l = from + days, r = to + days + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    min = Math.min(min, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    min = Math.min(min, tree[--r]);
+                }
+            }
+            return min;
+        }
+    }
+}
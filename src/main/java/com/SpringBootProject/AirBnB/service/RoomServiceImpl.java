@@ -62,7 +62,7 @@ public class RoomServiceImpl implements RoomService {
 
             if (hotel.isActive())
             {
-                inventoryService.initializeRoomForAYear(room);
+                inventoryService.initializeRoomInventory(room);
             }
 
             return modelMapper.map(room, RoomDto.class);
@@ -6,4 +6,6 @@ public interface UserService {
 
     User getUserById(Long id);
 
+    User getCachedUserById(Long id);
+
 }
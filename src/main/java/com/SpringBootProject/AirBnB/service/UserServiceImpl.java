@@ -3,23 +3,49 @@ package com.SpringBootProject.AirBnB.service;
 import com.SpringBootProject.AirBnB.entity.User;
 import com.SpringBootProject.AirBnB.exception.ResourceNotFoundException;
 import com.SpringBootProject.AirBnB.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
-@RequiredArgsConstructor
 public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Detached users with their roles, the principals of security.auth.mode=DATABASE
+    private final Cache<Long, User> users;
+
+    public UserServiceImpl(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${security.user-cache.max-size:10000}") long maxSize,
+                           @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
     @Override
     public User getUserById(Long id) {
         return userRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("User not found with id: "+id));
     }
 
+    @Override
+    public User getCachedUserById(Long id) {
+        return users.get(id, this::getUserById);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByEmail(username).orElse(null);
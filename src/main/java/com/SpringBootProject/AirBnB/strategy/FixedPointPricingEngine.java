@@ -0,0 +1,72 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Evaluates a compiled rule chain on long unscaled values and rounds HALF_UP to cents once, same result as
+ * PricingRuleChain.price rounded to the inventory.price scale. Every factor is exact decimal, so the product is
+ * exact as long as it fits in a long; on overflow the row falls back to BigDecimal.
+ */
+@Component
+public class FixedPointPricingEngine {
+
+    public static final int CENTS_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    public long priceCents(Inventory inventory, PricingContext context, PricingRuleChain chain, PricingPass pass) {
+        UnscaledDecimal basePrice = pass.basePrice(inventory.getRoom());
+        long unscaled = basePrice.unscaled();
+        int scale = basePrice.scale();
+        try {
+            for (PricingRule rule : chain.rules()) {
+                if (rule.appliesTo(inventory, context)) {
+                    UnscaledDecimal factor = rule.unscaledFactor(inventory, pass);
+                    unscaled = Math.multiplyExact(unscaled, factor.unscaled());
+                    scale += factor.scale();
+                }
+            }
+            return toCents(unscaled, scale);
+        } catch (ArithmeticException overflow) {
+            return toCents(chain.price(inventory, context));
+        }
+    }
+
+    // Unscaled value at CENTS_SCALE, so it can be compared with a price column without building a BigDecimal
+    public static long toCents(BigDecimal price) {
+        BigDecimal cents = price.scale() == CENTS_SCALE ? price : price.setScale(CENTS_SCALE, RoundingMode.HALF_UP);
+        return UnscaledDecimal.unscaledOf(cents);
+    }
+
+    // HALF_UP from any scale to cents
+    static long toCents(long unscaled, int scale) {
+        if (scale <= CENTS_SCALE) {
+            return Math.multiplyExact(unscaled, powerOfTen(CENTS_SCALE - scale));
+        }
+        long divisor = powerOfTen(scale - CENTS_SCALE);
+        long quotient = unscaled / divisor;
+        long remainder = Math.abs(unscaled % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(unscaled);
+        }
+        return quotient;
+    }
+
+    private static long powerOfTen(int exponent) {
+        if (exponent >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("Scale out of range: " + exponent);
+        }
+        return POWERS_OF_TEN[exponent];
+    }
+}
@@ -0,0 +1,130 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable holiday calendar, one bitset per city indexed by days since the first holiday. Holidays without a
+ * city are OR-ed into every city's bitset, so a lookup is one map get and one bit test. Pricing resolves the
+ * bitset once per city with forCity and then only tests bits.
+ */
+public final class HolidayDays {
+
+    public static final HolidayDays EMPTY = new HolidayDays(0, new long[0], Map.of(), 0);
+
+    private final long baseEpochDay;
+    private final long[] everywhere;
+    private final Map<String, long[]> byCity;
+    private final int size;
+
+    private HolidayDays(long baseEpochDay, long[] everywhere, Map<String, long[]> byCity, int size) {
+        this.baseEpochDay = baseEpochDay;
+        this.everywhere = everywhere;
+        this.byCity = byCity;
+        this.size = size;
+    }
+
+    public boolean contains(String city, long epochDay) {
+        return contains(bitsFor(city), baseEpochDay, epochDay);
+    }
+
+    public CityHolidays forCity(String city) {
+        return new CityHolidays(bitsFor(city), baseEpochDay);
+    }
+
+    private long[] bitsFor(String city) {
+        return city == null ? everywhere : byCity.getOrDefault(city, everywhere);
+    }
+
+    private static boolean contains(long[] bits, long baseEpochDay, long epochDay) {
+        long offset = epochDay - baseEpochDay;
+        if (offset < 0 || offset >= (long) bits.length << 6) {
+            return false;
+        }
+        return (bits[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    // Number of (city, date) entries the calendar was built from
+    public int size() {
+        return size;
+    }
+
+    // The holidays of one city, the bitset is shared with the calendar and never written
+    public static final class CityHolidays {
+
+        private final long[] bits;
+        private final long baseEpochDay;
+
+        private CityHolidays(long[] bits, long baseEpochDay) {
+            this.bits = bits;
+            this.baseEpochDay = baseEpochDay;
+        }
+
+        public boolean contains(long epochDay) {
+            return HolidayDays.contains(bits, baseEpochDay, epochDay);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private final List<LocalDate> everywhereDates = new ArrayList<>();
+        private final Map<String, List<LocalDate>> cityDates = new HashMap<>();
+        private int size;
+
+        // A null or blank city applies to every city
+        public Builder add(String city, LocalDate date) {
+            if (city == null || city.isBlank()) {
+                everywhereDates.add(date);
+            } else {
+                cityDates.computeIfAbsent(city.trim(), c -> new ArrayList<>()).add(date);
+            }
+            size++;
+            return this;
+        }
+
+        public HolidayDays build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (LocalDate date : everywhereDates) {
+                min = Math.min(min, date.toEpochDay());
+                max = Math.max(max, date.toEpochDay());
+            }
+            for (List<LocalDate> dates : cityDates.values()) {
+                for (LocalDate date : dates) {
+                    min = Math.min(min, date.toEpochDay());
+                    max = Math.max(max, date.toEpochDay());
+                }
+            }
+
+            long baseEpochDay = min;
+            int words = (int) ((max - baseEpochDay) >>> 6) + 1;
+            long[] everywhere = new long[words];
+            setBits(everywhere, baseEpochDay, everywhereDates);
+
+            Map<String, long[]> byCity = new HashMap<>();
+            cityDates.forEach((city, dates) -> {
+                long[] bits = everywhere.clone();
+                setBits(bits, baseEpochDay, dates);
+                byCity.put(city, bits);
+            });
+            return new HolidayDays(baseEpochDay, everywhere, Map.copyOf(byCity), size);
+        }
+
+        private static void setBits(long[] bits, long baseEpochDay, List<LocalDate> dates) {
+            for (LocalDate date : dates) {
+                long offset = date.toEpochDay() - baseEpochDay;
+                bits[(int) (offset >>> 6)] |= 1L << offset;
+            }
+        }
+    }
+}
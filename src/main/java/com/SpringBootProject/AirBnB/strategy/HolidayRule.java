@@ -0,0 +1,34 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+
+import java.math.BigDecimal;
+
+// Holiday surcharge for the nights in the holiday calendar of the inventory's city
+public final class HolidayRule extends MultiplierRule {
+
+    // Set on the copy in a city's chain, null in the rule set where the city is looked up per row
+    private final HolidayDays.CityHolidays cityHolidays;
+
+    public HolidayRule(BigDecimal multiplier) {
+        this(multiplier, null);
+    }
+
+    private HolidayRule(BigDecimal multiplier, HolidayDays.CityHolidays cityHolidays) {
+        super(multiplier);
+        this.cityHolidays = cityHolidays;
+    }
+
+    HolidayRule forCity(HolidayDays.CityHolidays cityHolidays) {
+        return new HolidayRule(getMultiplier(), cityHolidays);
+    }
+
+    @Override
+    public boolean appliesTo(Inventory inventory, PricingContext context) {
+        long epochDay = inventory.getDate().toEpochDay();
+        if (cityHolidays != null) {
+            return cityHolidays.contains(epochDay);
+        }
+        return context.isHoliday(inventory.getCity(), epochDay);
+    }
+}
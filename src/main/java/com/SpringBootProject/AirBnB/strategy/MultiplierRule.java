@@ -0,0 +1,36 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+
+import java.math.BigDecimal;
+
+/**
+ * Rule with a fixed multiplier, split into unscaled value and scale once when the chain is compiled.
+ */
+public abstract class MultiplierRule implements PricingRule {
+
+    private final BigDecimal multiplier;
+    // Never reloaded, so it can be shared by every pass
+    private final UnscaledDecimal unscaledMultiplier;
+
+    protected MultiplierRule(BigDecimal multiplier) {
+        // 1.1500 from a NUMERIC column and 1.15 give the same price, the shorter one keeps the fixed-point product smaller
+        BigDecimal stripped = multiplier.stripTrailingZeros();
+        this.multiplier = stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+        this.unscaledMultiplier = UnscaledDecimal.of(this.multiplier);
+    }
+
+    protected BigDecimal getMultiplier() {
+        return multiplier;
+    }
+
+    @Override
+    public BigDecimal factor(Inventory inventory) {
+        return multiplier;
+    }
+
+    @Override
+    public UnscaledDecimal unscaledFactor(Inventory inventory, PricingPass pass) {
+        return unscaledMultiplier;
+    }
+}
@@ -0,0 +1,23 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+
+import java.math.BigDecimal;
+
+// Applies while the taken share of the room's inventory for the night is below the threshold. Reserved rooms count
+// as taken, a reservation is when the room leaves search and when the booking event reprices the night
+public final class OccupancyRule extends MultiplierRule {
+
+    private final double threshold;
+
+    public OccupancyRule(BigDecimal multiplier, double threshold) {
+        super(multiplier);
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean appliesTo(Inventory inventory, PricingContext context) {
+        double occupancyRate = (double) (inventory.getBookedCount() + inventory.getReservedCount()) / inventory.getTotalCount();
+        return occupancyRate < threshold;
+    }
+}
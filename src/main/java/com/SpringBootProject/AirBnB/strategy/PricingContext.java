@@ -0,0 +1,47 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything the pricing chain reads besides the inventory row, resolved once per pricing run
+ * instead of calling LocalDate.now() and looking up holidays or rules for every row.
+ */
+public final class PricingContext {
+
+    private final long todayEpochDay;
+    private final HolidayDays holidays;
+    private final PricingRuleSet rules;
+    // City chains bound to their holidays, built on first use and shared by every row of the run
+    private final Map<String, PricingRuleChain> cityChains = new ConcurrentHashMap<>();
+    private final PricingRuleChain defaultChain;
+
+    private PricingContext(LocalDate today, HolidayDays holidays, PricingRuleSet rules) {
+        this.todayEpochDay = today.toEpochDay();
+        this.holidays = holidays;
+        this.rules = rules;
+        this.defaultChain = bind(null);
+    }
+
+    public static PricingContext of(LocalDate today, HolidayDays holidays, PricingRuleSet rules) {
+        return new PricingContext(today, holidays, rules);
+    }
+
+    public long getTodayEpochDay() {
+        return todayEpochDay;
+    }
+
+    public boolean isHoliday(String city, long epochDay) {
+        return holidays.contains(city, epochDay);
+    }
+
+    // Resolve once per hotel or city, not per row. The chain carries the city's holidays, so it only prices rows of that city
+    public PricingRuleChain chainFor(String city) {
+        return city == null ? defaultChain : cityChains.computeIfAbsent(city, this::bind);
+    }
+
+    private PricingRuleChain bind(String city) {
+        return rules.chainFor(city).forCity(holidays.forCity(city));
+    }
+}
@@ -0,0 +1,39 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Room;
+
+import java.math.BigDecimal;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per pass scratch of the fixed-point engine: the base price of each room converted once, and slots for the
+ * surge factor and stored price of the current row. One pass per thread, for one hotel or one room.
+ */
+public final class PricingPass {
+
+    private final Map<Room, UnscaledDecimal> basePrices = new IdentityHashMap<>();
+    private final UnscaledDecimal surgeFactor = new UnscaledDecimal();
+    private final UnscaledDecimal storedPrice = new UnscaledDecimal();
+    // Rows arrive grouped by room, so most rows skip the map
+    private Room lastRoom;
+    private UnscaledDecimal lastBasePrice;
+
+    UnscaledDecimal basePrice(Room room) {
+        if (room != lastRoom) {
+            lastBasePrice = basePrices.computeIfAbsent(room, r -> UnscaledDecimal.of(r.getBasePrice()));
+            lastRoom = room;
+        }
+        return lastBasePrice;
+    }
+
+    UnscaledDecimal surgeFactor(BigDecimal value) {
+        return surgeFactor.load(value);
+    }
+
+    // Stored price of a row at CENTS_SCALE, to compare with a computed price
+    public long cents(BigDecimal price) {
+        UnscaledDecimal slot = storedPrice.load(price);
+        return FixedPointPricingEngine.toCents(slot.unscaled(), slot.scale());
+    }
+}
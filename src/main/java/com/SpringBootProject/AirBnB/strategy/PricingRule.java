@@ -0,0 +1,19 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+
+import java.math.BigDecimal;
+
+
+/**
+ * One multiplier of the pricing chain. The factor is exposed both as a BigDecimal and as an UnscaledDecimal,
+ * so the fixed-point engine can apply it without allocating.
+ */
+public interface PricingRule {
+
+    boolean appliesTo(Inventory inventory, PricingContext context);
+
+    BigDecimal factor(Inventory inventory);
+
+    UnscaledDecimal unscaledFactor(Inventory inventory, PricingPass pass);
+}
@@ -0,0 +1,45 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled chain of one city, the room base price times the factor of every rule that applies, in order.
+ */
+public final class PricingRuleChain {
+
+    private final PricingRule[] rules;
+
+    public PricingRuleChain(List<PricingRule> rules) {
+        this.rules = rules.toArray(new PricingRule[0]);
+    }
+
+    // Copy for the rows of one city, its holiday rules test that city's bits without a lookup per row
+    PricingRuleChain forCity(HolidayDays.CityHolidays cityHolidays) {
+        return new PricingRuleChain(Arrays.stream(rules)
+                .map(rule -> rule instanceof HolidayRule holidayRule ? holidayRule.forCity(cityHolidays) : rule)
+                .toList());
+    }
+
+    // Unrounded, like the column write rounds it
+    public BigDecimal price(Inventory inventory, PricingContext context) {
+        BigDecimal price = inventory.getRoom().getBasePrice();
+        for (PricingRule rule : rules) {
+            if (rule.appliesTo(inventory, context)) {
+                price = price.multiply(rule.factor(inventory));
+            }
+        }
+        return price;
+    }
+
+    PricingRule[] rules() {
+        return rules;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+}
@@ -0,0 +1,60 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable set of compiled chains, the default chain plus the cities that override it with a chain of their own.
+ */
+public final class PricingRuleSet {
+
+    public static final BigDecimal DEFAULT_URGENCY_MULTIPLIER = BigDecimal.valueOf(1.15);
+    public static final int DEFAULT_URGENCY_WINDOW_DAYS = 7;
+    public static final BigDecimal DEFAULT_HOLIDAY_MULTIPLIER = BigDecimal.valueOf(1.252);
+
+    private final PricingRuleChain defaultChain;
+    private final Map<String, PricingRuleChain> cityChains;
+    private final int[] urgencyWindowDays;
+
+    public PricingRuleSet(List<PricingRule> defaultRules, Map<String, List<PricingRule>> cityRules) {
+        this.defaultChain = new PricingRuleChain(defaultRules);
+        this.cityChains = cityRules.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> new PricingRuleChain(e.getValue())));
+        this.urgencyWindowDays = Stream.concat(defaultRules.stream(), cityRules.values().stream().flatMap(List::stream))
+                .filter(UrgencyRule.class::isInstance)
+                .mapToInt(rule -> ((UrgencyRule) rule).getWindowDays())
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    // Base -> surge -> urgency -> holiday, the chain that used to be wired with @Qualifier
+    public static PricingRuleSet defaults() {
+        return new PricingRuleSet(defaultRules(), Map.of());
+    }
+
+    public static List<PricingRule> defaultRules() {
+        return List.of(
+                new SurgeRule(),
+                new UrgencyRule(DEFAULT_URGENCY_MULTIPLIER, DEFAULT_URGENCY_WINDOW_DAYS),
+                new HolidayRule(DEFAULT_HOLIDAY_MULTIPLIER));
+    }
+
+    public PricingRuleChain chainFor(String city) {
+        PricingRuleChain chain = city == null ? null : cityChains.get(city);
+        return chain == null ? defaultChain : chain;
+    }
+
+    // Window lengths of every urgency rule, the day each window reaches changes price at midnight
+    public int[] urgencyWindowDays() {
+        return Arrays.copyOf(urgencyWindowDays, urgencyWindowDays.length);
+    }
+
+    public int cityCount() {
+        return cityChains.size();
+    }
+}
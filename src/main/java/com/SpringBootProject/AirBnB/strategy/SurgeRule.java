@@ -0,0 +1,25 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+
+import java.math.BigDecimal;
+
+// Surge factor stored on the inventory row
+public final class SurgeRule implements PricingRule {
+
+    @Override
+    public boolean appliesTo(Inventory inventory, PricingContext context) {
+        return true;
+    }
+
+    @Override
+    public BigDecimal factor(Inventory inventory) {
+        return inventory.getSurgeFactor();
+    }
+
+    // Most rows share a handful of surge factors, the pass only converts when the factor changes
+    @Override
+    public UnscaledDecimal unscaledFactor(Inventory inventory, PricingPass pass) {
+        return pass.surgeFactor(inventory.getSurgeFactor());
+    }
+}
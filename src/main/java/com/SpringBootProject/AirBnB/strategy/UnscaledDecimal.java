@@ -0,0 +1,42 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import java.math.BigDecimal;
+
+/**
+ * A decimal as long unscaled value and scale. A slot can be reloaded from BigDecimal values and only converts
+ * when the value differs from the last one it saw, an equals check on two compact BigDecimals allocates nothing.
+ * Slots that are reloaded belong to one PricingPass and are not thread safe.
+ */
+public final class UnscaledDecimal {
+
+    private BigDecimal source;
+    private long unscaled;
+    private int scale;
+
+    public static UnscaledDecimal of(BigDecimal value) {
+        return new UnscaledDecimal().load(value);
+    }
+
+    public UnscaledDecimal load(BigDecimal value) {
+        if (value != source && !value.equals(source)) {
+            unscaled = unscaledOf(value);
+            scale = value.scale();
+            source = value;
+        }
+        return this;
+    }
+
+    public long unscaled() {
+        return unscaled;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    // Without BigInteger: moving the point by the scale gives a scale 0 value whose long is read directly,
+    // the intermediate BigDecimal does not escape
+    static long unscaledOf(BigDecimal value) {
+        return value.scale() == 0 ? value.longValueExact() : value.movePointRight(value.scale()).longValueExact();
+    }
+}
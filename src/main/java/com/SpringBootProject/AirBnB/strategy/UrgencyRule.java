@@ -0,0 +1,26 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+
+import java.math.BigDecimal;
+
+// Last minute surcharge for the nights from today up to windowDays ahead
+public final class UrgencyRule extends MultiplierRule {
+
+    private final int windowDays;
+
+    public UrgencyRule(BigDecimal multiplier, int windowDays) {
+        super(multiplier);
+        this.windowDays = windowDays;
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    @Override
+    public boolean appliesTo(Inventory inventory, PricingContext context) {
+        long daysAhead = inventory.getDate().toEpochDay() - context.getTodayEpochDay();
+        return daysAhead >= 0 && daysAhead < windowDays;
+    }
+}
@@ -0,0 +1,31 @@
+-- Runs of the nightly price sweep and the checkpoint of each hotel partition, so that a run interrupted by a
+-- restart resumes after the last hotel that was committed. Partition bounds are fixed when the run starts.
+
+CREATE TABLE pricing_job_run
+(
+    id             BIGSERIAL PRIMARY KEY,
+    run_key        VARCHAR(255) NOT NULL UNIQUE,
+    status         VARCHAR(255) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'ABANDONED')),
+    max_hotel_id   BIGINT       NOT NULL,
+    partition_size BIGINT       NOT NULL,
+    hotels_total   BIGINT       NOT NULL,
+    started_at     TIMESTAMP(6) NOT NULL DEFAULT now(),
+    finished_at    TIMESTAMP(6)
+);
+
+CREATE INDEX idx_pricing_job_run_status ON pricing_job_run (status, started_at);
+
+CREATE TABLE pricing_job_checkpoint
+(
+    run_id          BIGINT       NOT NULL REFERENCES pricing_job_run (id) ON DELETE CASCADE,
+    partition_index INTEGER      NOT NULL,
+    from_id         BIGINT       NOT NULL,
+    to_id           BIGINT       NOT NULL,
+    last_hotel_id   BIGINT       NOT NULL,
+    hotels_priced   BIGINT       NOT NULL DEFAULT 0,
+    rows_written    BIGINT       NOT NULL DEFAULT 0,
+    rows_skipped    BIGINT       NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP(6) NOT NULL DEFAULT now(),
+    completed_at    TIMESTAMP(6),
+    PRIMARY KEY (run_id, partition_index)
+);
@@ -0,0 +1,13 @@
+-- Revoked refresh tokens (by jti) and token families (by the jti of the login that started them).
+-- Rows are kept until the token could have expired anyway, nodes poll revoked_at to mirror new rows in memory.
+
+CREATE TABLE refresh_token_revocation
+(
+    token_id   VARCHAR(64)  PRIMARY KEY,
+    user_id    BIGINT       NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    revoked_at TIMESTAMP(6) NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE INDEX idx_refresh_token_revocation_revoked_at ON refresh_token_revocation (revoked_at);
+CREATE INDEX idx_refresh_token_revocation_expires_at ON refresh_token_revocation (expires_at);
@@ -0,0 +1,101 @@
+-- Baseline schema, previously generated by hibernate with ddl-auto=create-drop
+
+CREATE TABLE app_user
+(
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email    VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    name     VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE user_roles
+(
+    user_id BIGINT NOT NULL REFERENCES app_user (id),
+    roles   VARCHAR(255) CHECK (roles IN ('GUEST', 'HOTEL_MANAGER'))
+);
+
+CREATE TABLE hotel
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    city         VARCHAR(255),
+    photos       TEXT[],
+    amenities    TEXT[],
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    address      VARCHAR(255),
+    email        VARCHAR(255),
+    phone_number VARCHAR(255),
+    location     VARCHAR(255),
+    active       BOOLEAN      NOT NULL,
+    owner_id     BIGINT REFERENCES app_user (id)
+);
+
+CREATE TABLE room
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id    BIGINT         NOT NULL REFERENCES hotel (id),
+    type        VARCHAR(255)   NOT NULL,
+    base_price  NUMERIC(10, 2) NOT NULL,
+    photos      TEXT[],
+    amenities   TEXT[],
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)   NOT NULL,
+    total_count INTEGER        NOT NULL,
+    capacity    INTEGER        NOT NULL,
+    active      BOOLEAN        NOT NULL
+);
+
+CREATE TABLE guest
+(
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT REFERENCES app_user (id),
+    name    VARCHAR(255),
+    gender  VARCHAR(255) CHECK (gender IN ('MALE', 'FEMALE', 'OTHER')),
+    age     INTEGER
+);
+
+CREATE TABLE booking
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id       BIGINT         NOT NULL REFERENCES hotel (id),
+    room_id        BIGINT         NOT NULL REFERENCES room (id),
+    rooms_count    INTEGER        NOT NULL,
+    user_id        BIGINT         NOT NULL REFERENCES app_user (id),
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6),
+    check_in_date  TIMESTAMP(6),
+    check_out_date TIMESTAMP(6),
+    booking_status VARCHAR(255)   NOT NULL CHECK (booking_status IN
+                                                  ('RESERVED', 'GUESTS_ADDED', 'PAYMENT_PENDING', 'CONFIRMED',
+                                                   'CANCELLED', 'EXPIRED')),
+    amount         NUMERIC(10, 2) NOT NULL
+);
+
+CREATE INDEX idx_booking_status_created_at ON booking (booking_status, created_at);
+
+CREATE TABLE booking_guest
+(
+    booking_id BIGINT NOT NULL REFERENCES booking (id),
+    guest_id   BIGINT NOT NULL REFERENCES guest (id),
+    PRIMARY KEY (booking_id, guest_id)
+);
+
+CREATE TABLE payment
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    transition_id  VARCHAR(255)   NOT NULL UNIQUE,
+    payment_status VARCHAR(255)   NOT NULL CHECK (payment_status IN ('CONFIRMED', 'CANCELLED', 'PENDING')),
+    amount         NUMERIC(10, 2) NOT NULL,
+    booking_id     BIGINT         NOT NULL UNIQUE REFERENCES booking (id)
+);
+
+CREATE TABLE hotel_min_price
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id   BIGINT         NOT NULL REFERENCES hotel (id),
+    date       DATE           NOT NULL,
+    price      NUMERIC(10, 2) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
@@ -0,0 +1,81 @@
+-- Inventory is range partitioned by month on date so that search, locking and pricing queries
+-- only touch the partitions of the dates they ask for. The partition key has to be part of every
+-- unique constraint, which is why the primary key is (id, date).
+
+CREATE TABLE inventory
+(
+    id             BIGSERIAL,
+    hotel_id       BIGINT         NOT NULL REFERENCES hotel (id),
+    room_id        BIGINT         NOT NULL REFERENCES room (id),
+    date           DATE           NOT NULL,
+    booked_count   INTEGER        NOT NULL DEFAULT 0,
+    reserved_count INTEGER        NOT NULL DEFAULT 0,
+    total_count    INTEGER        NOT NULL,
+    surge_factor   NUMERIC(5, 2)  NOT NULL,
+    price          NUMERIC(10, 2) NOT NULL,
+    city           VARCHAR(255)   NOT NULL,
+    closed         BOOLEAN        NOT NULL,
+    created_at     DATE           NOT NULL,
+    updated_at     DATE           NOT NULL,
+    PRIMARY KEY (id, date),
+    CONSTRAINT unique_hotel_room_date UNIQUE (hotel_id, room_id, date)
+) PARTITION BY RANGE (date);
+
+CREATE INDEX idx_inventory_room_date ON inventory (room_id, date);
+CREATE INDEX idx_inventory_city_date ON inventory (city, date);
+
+-- Creates the partition holding the month of the given day, does nothing if it already exists
+CREATE OR REPLACE FUNCTION create_inventory_partition(month_day DATE) RETURNS BOOLEAN AS
+$$
+DECLARE
+    partition_start DATE := date_trunc('month', month_day)::DATE;
+    partition_name  TEXT := 'inventory_' || to_char(partition_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF inventory FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_start, (partition_start + INTERVAL '1 month')::DATE);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches every partition that ends on or before the given day and renames it to inventory_archive_YYYY_MM,
+-- the archived tables keep their rows and can be dumped or dropped separately
+CREATE OR REPLACE FUNCTION archive_inventory_partitions(before_day DATE) RETURNS INTEGER AS
+$$
+DECLARE
+    partition_name  TEXT;
+    partition_start DATE;
+    archived        INTEGER := 0;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits inh
+                 JOIN pg_class c ON c.oid = inh.inhrelid
+                 JOIN pg_class p ON p.oid = inh.inhparent
+        WHERE p.relname = 'inventory'
+          AND c.relname ~ '^inventory_\d{4}_\d{2}$'
+        LOOP
+            partition_start := to_date(substring(partition_name FROM 11), 'YYYY_MM');
+            IF (partition_start + INTERVAL '1 month')::DATE <= before_day THEN
+                EXECUTE format('ALTER TABLE inventory DETACH PARTITION %I', partition_name);
+                EXECUTE format('ALTER TABLE %I RENAME TO %I', partition_name,
+                               'inventory_archive_' || to_char(partition_start, 'YYYY_MM'));
+                archived := archived + 1;
+            END IF;
+        END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+DO
+$$
+    BEGIN
+        FOR i IN 0..13
+            LOOP
+                PERFORM create_inventory_partition((date_trunc('month', CURRENT_DATE) + make_interval(months => i))::DATE);
+            END LOOP;
+    END
+$$;
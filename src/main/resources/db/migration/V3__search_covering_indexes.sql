@@ -0,0 +1,9 @@
+-- Covering indexes for the single pass hotel search, both halves of the query are answered from the index alone
+
+DROP INDEX IF EXISTS idx_inventory_city_date;
+
+CREATE INDEX idx_inventory_city_date_availability
+    ON inventory (city, date) INCLUDE (hotel_id, room_id, total_count, booked_count, reserved_count, closed);
+
+CREATE INDEX idx_hotel_min_price_hotel_date
+    ON hotel_min_price (hotel_id, date) INCLUDE (price);
@@ -0,0 +1,11 @@
+-- Running total of the daily min price per hotel, the price of any stay is
+-- cumulative(last night) - cumulative(first night) + price(first night)
+
+ALTER TABLE hotel_min_price
+    ADD COLUMN cumulative_price NUMERIC(14, 2);
+
+UPDATE hotel_min_price p
+SET cumulative_price = running.cumulative_price
+FROM (SELECT id, SUM(price) OVER (PARTITION BY hotel_id ORDER BY date) AS cumulative_price
+      FROM hotel_min_price) AS running
+WHERE p.id = running.id;
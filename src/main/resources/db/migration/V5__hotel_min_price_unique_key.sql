@@ -0,0 +1,14 @@
+-- One min price row per hotel and day, the pricing job upserts on this key.
+-- Duplicates left by concurrent runs are removed first, keeping the newest row.
+
+DELETE FROM hotel_min_price p
+USING hotel_min_price newer
+WHERE newer.hotel_id = p.hotel_id
+  AND newer.date = p.date
+  AND newer.id > p.id;
+
+-- The unique index also covers the search lookups, so it replaces idx_hotel_min_price_hotel_date
+ALTER TABLE hotel_min_price
+    ADD CONSTRAINT unique_hotel_min_price_hotel_date UNIQUE (hotel_id, date) INCLUDE (price, cumulative_price);
+
+DROP INDEX IF EXISTS idx_hotel_min_price_hotel_date;
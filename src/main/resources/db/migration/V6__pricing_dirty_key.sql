@@ -0,0 +1,11 @@
+-- (room, date) keys whose price has to be recomputed, drained by the incremental repricer
+
+CREATE TABLE pricing_dirty_key
+(
+    room_id   BIGINT       NOT NULL,
+    date      DATE         NOT NULL,
+    marked_at TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (room_id, date)
+);
+
+CREATE INDEX idx_pricing_dirty_key_marked_at ON pricing_dirty_key (marked_at);
@@ -0,0 +1,11 @@
+-- Holidays read by HolidayCalendar for HolidayRule, a row without a city applies to every city
+
+CREATE TABLE holiday
+(
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    date DATE         NOT NULL,
+    city VARCHAR(255),
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE UNIQUE INDEX unique_holiday_date_city ON holiday (date, COALESCE(city, ''));
@@ -0,0 +1,23 @@
+-- Declarative pricing chain, rules apply in position order on top of the room base price.
+-- Rows without a city make the default chain, a city with rows of its own uses only those.
+-- threshold is the window in days for URGENCY and for OCCUPANCY the max share of the night's rooms that are
+-- taken, booked plus reserved.
+
+CREATE TABLE pricing_rule
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    city       VARCHAR(255),
+    position   INTEGER     NOT NULL,
+    rule_type  VARCHAR(32) NOT NULL CHECK (rule_type IN ('SURGE', 'URGENCY', 'HOLIDAY', 'OCCUPANCY')),
+    multiplier NUMERIC(8, 4),
+    threshold  NUMERIC(8, 4),
+    enabled    BOOLEAN     NOT NULL DEFAULT true
+);
+
+CREATE UNIQUE INDEX unique_pricing_rule_city_position ON pricing_rule (COALESCE(city, ''), position);
+
+-- The chain that used to be wired through @Qualifier: base -> surge -> urgency -> holiday
+INSERT INTO pricing_rule (city, position, rule_type, multiplier, threshold)
+VALUES (NULL, 1, 'SURGE', NULL, NULL),
+       (NULL, 2, 'URGENCY', 1.15, 7),
+       (NULL, 3, 'HOLIDAY', 1.252, NULL);
@@ -0,0 +1,11 @@
+-- Leases so that each scheduled job, or each partition of a job, runs on one node at a time.
+-- A lease can be taken when it has expired or is already held by the same node, a completed lease never again.
+
+CREATE TABLE job_lease
+(
+    name         VARCHAR(255) PRIMARY KEY,
+    owner        VARCHAR(255) NOT NULL,
+    acquired_at  TIMESTAMP(6) NOT NULL,
+    expires_at   TIMESTAMP(6) NOT NULL,
+    completed_at TIMESTAMP(6)
+);
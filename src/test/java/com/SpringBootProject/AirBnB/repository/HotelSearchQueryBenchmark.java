@@ -0,0 +1,110 @@
+package com.SpringBootProject.AirBnB.repository;
+
+import com.SpringBootProject.AirBnB.dto.HotelPriceDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the single pass search query with running the availability query and the price query one after the other.
+ * Needs a populated database, run with:
+ * mvn test -Dtest=HotelSearchQueryBenchmark -Dbenchmark=true -Dbenchmark.city=Mumbai
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HotelSearchQueryBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(HotelSearchQueryBenchmark.class);
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 200;
+
+    @Autowired
+    private HotelMinPriceRepository hotelMinPriceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void singlePassVersusTwoQueries() {
+        String city = System.getProperty("benchmark.city", "Mumbai");
+        LocalDate startDate = LocalDate.now().plusDays(14);
+        LocalDate endDate = startDate.plusDays(2);
+        int roomsCount = 1;
+        long dateCount = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+
+        measure("single pass", () -> hotelMinPriceRepository.findHotelsWithAvailableInventory(
+                city, startDate, endDate, roomsCount, dateCount, PageRequest.of(0, 10)).getContent());
+
+        measure("two queries", () -> {
+            List<Long> hotelIds = entityManager.createQuery("""
+                            SELECT DISTINCT a.hotel.id FROM Inventory a
+                            WHERE a.city = :city
+                            AND a.date BETWEEN :startDate AND :endDate
+                            AND a.closed = false
+                            AND (a.totalCount - a.bookedCount - a.reservedCount) >= :roomsCount
+                            GROUP BY a.hotel.id, a.room.id
+                            HAVING COUNT(a.date) = :dateCount
+                            """, Long.class)
+                    .setParameter("city", city)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .setParameter("roomsCount", roomsCount)
+                    .setParameter("dateCount", dateCount)
+                    .getResultList();
+            if (hotelIds.isEmpty()) {
+                return List.of();
+            }
+            return entityManager.createQuery("""
+                            SELECT NEW com.SpringBootProject.AirBnB.dto.HotelPriceDto(
+                                h.id, h.name, h.city, array_get(h.photos, 1), AVG(i.price)
+                            )
+                            FROM HotelMinPrice i JOIN i.hotel h
+                            WHERE h.id IN :hotelIds
+                            AND i.date BETWEEN :startDate AND :endDate
+                            AND h.active = true
+                            GROUP BY h.id
+                            """, HotelPriceDto.class)
+                    .setParameter("hotelIds", hotelIds)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .setMaxResults(10)
+                    .getResultList();
+        });
+    }
+
+    private void measure(String name, Supplier<List<HotelPriceDto>> search) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            search.get();
+            entityManager.clear();
+        }
+
+        long[] timings = new long[MEASURED_ROUNDS];
+        int rows = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            rows = search.get().size();
+            timings[i] = System.nanoTime() - start;
+            entityManager.clear();
+        }
+
+        Arrays.sort(timings);
+        log.info(String.format("%-12s rows=%d avg=%.3fms p50=%.3fms p95=%.3fms", name, rows,
+                Arrays.stream(timings).average().orElse(0) / 1_000_000d,
+                timings[MEASURED_ROUNDS / 2] / 1_000_000d,
+                timings[(int) (MEASURED_ROUNDS * 0.95)] / 1_000_000d));
+    }
+}
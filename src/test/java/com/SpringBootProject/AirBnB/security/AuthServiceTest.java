@@ -0,0 +1,81 @@
+package com.SpringBootProject.AirBnB.security;
+
+import com.SpringBootProject.AirBnB.dto.LoginDto;
+import com.SpringBootProject.AirBnB.entity.User;
+import com.SpringBootProject.AirBnB.entity.enums.Role;
+import com.SpringBootProject.AirBnB.exception.UnauthorisedException;
+import com.SpringBootProject.AirBnB.repository.UserRepository;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs256";
+
+    private final JWTService jwtService = new JWTService(SECRET, 100, 60, new SimpleMeterRegistry());
+    private final AuthService authService;
+
+    AuthServiceTest() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("guest@example.com");
+        user.setRoles(Set.of(Role.GUEST));
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        authService = new AuthService(userRepository, null, null,
+                authentication -> new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()),
+                jwtService, RefreshTokenRevocationsTest.revocations());
+    }
+
+    private String[] login() {
+        LoginDto loginDto = new LoginDto();
+        loginDto.setEmail("guest@example.com");
+        loginDto.setPassword("password");
+        return authService.login(loginDto);
+    }
+
+    @Test
+    void rotatedTokensKeepRefreshing() {
+        String[] tokens = login();
+
+        String[] first = authService.refreshToken(tokens[1]);
+        String[] second = authService.refreshToken(first[1]);
+        String[] third = authService.refreshToken(second[1]);
+
+        assertEquals(1L, jwtService.getUserIdFromToken(third[0]));
+        assertEquals(jwtService.parseRefreshToken(tokens[1]).familyId(), jwtService.parseRefreshToken(third[1]).familyId());
+    }
+
+    @Test
+    void reusedTokenRevokesItsFamily() {
+        String[] tokens = login();
+        String[] first = authService.refreshToken(tokens[1]);
+        String[] second = authService.refreshToken(first[1]);
+
+        assertThrows(UnauthorisedException.class, () -> authService.refreshToken(first[1]));
+        // The latest token of the family no longer works either
+        assertThrows(UnauthorisedException.class, () -> authService.refreshToken(second[1]));
+        // Other logins are separate families
+        authService.refreshToken(login()[1]);
+    }
+
+    @Test
+    void refreshTokenIsNotAnAccessToken() {
+        String[] tokens = login();
+
+        assertEquals(1L, jwtService.getUserIdFromToken(tokens[0]));
+        assertThrows(UnsupportedJwtException.class, () -> jwtService.verifyAccessToken(tokens[1]));
+    }
+}
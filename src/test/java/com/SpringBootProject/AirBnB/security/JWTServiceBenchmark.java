@@ -0,0 +1,90 @@
+package com.SpringBootProject.AirBnB.security;
+
+import com.SpringBootProject.AirBnB.entity.User;
+import com.SpringBootProject.AirBnB.entity.enums.Role;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token verifications per second, rebuilding the key and parser on every call as JWTService used to,
+ * with the prebuilt parser, and through the verified-token cache. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.SpringBootProject.AirBnB.security.JWTServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+    // Distinct users hitting the API at the same time, every token is reused across requests
+    private static final int TOKENS = 256;
+
+    private JWTService jwtService;
+    private JwtParser prebuiltParser;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService(SECRET, 10_000, 60, new SimpleMeterRegistry());
+        prebuiltParser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setEmail("user" + i + "@example.com");
+            user.setRoles(Set.of(Role.GUEST));
+            tokens[i] = jwtService.generateAccessToken(user);
+            if (jwtService.getUserIdFromToken(tokens[i]) != i + 1) {
+                throw new IllegalStateException("Token " + i + " does not carry its user id");
+            }
+        }
+    }
+
+    private String nextToken() {
+        next = (next + 1) % TOKENS;
+        return tokens[next];
+    }
+
+    @Benchmark
+    public Long rebuiltKeyAndParser() {
+        return Long.valueOf(Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(nextToken())
+                .getPayload()
+                .getSubject());
+    }
+
+    @Benchmark
+    public Long prebuiltParser() {
+        return Long.valueOf(prebuiltParser.parseSignedClaims(nextToken()).getPayload().getSubject());
+    }
+
+    @Benchmark
+    public Long cachedVerification() {
+        return jwtService.getUserIdFromToken(nextToken());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JWTServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
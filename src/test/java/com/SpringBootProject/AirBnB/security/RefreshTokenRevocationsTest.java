@@ -0,0 +1,80 @@
+package com.SpringBootProject.AirBnB.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshTokenRevocationsTest {
+
+    // Stands in for refresh_token_revocation, the insert only succeeds for a new token id
+    static class RevocationTable extends JdbcTemplate {
+
+        private final Set<Object> tokenIds = new HashSet<>();
+
+        @Override
+        public int update(String sql, Object... args) {
+            return tokenIds.add(args[0]) ? 1 : 0;
+        }
+    }
+
+    static RefreshTokenRevocations revocations() {
+        return new RefreshTokenRevocations(new RevocationTable(), null, 1_000, 30_000, "0 50 3 * * *");
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        RefreshTokenRevocations.BloomFilter filter = new RefreshTokenRevocations.BloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("token-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("token-" + i));
+        }
+    }
+
+    @Test
+    void bloomFilterFalsePositivesStayNearOnePercentAtCapacity() {
+        RefreshTokenRevocations.BloomFilter filter = new RefreshTokenRevocations.BloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("token-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void revokeSucceedsOnceAndIsSeenLocally() {
+        RefreshTokenRevocations revocations = revocations();
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        assertFalse(revocations.isRevoked("a"));
+        assertTrue(revocations.revoke("a", 1L, expiresAt));
+        assertFalse(revocations.revoke("a", 1L, expiresAt));
+        assertTrue(revocations.isRevoked("a"));
+        assertFalse(revocations.isRevoked("b"));
+    }
+
+    @Test
+    void familyRevocationsDoNotMatchTokenIds() {
+        RefreshTokenRevocations revocations = revocations();
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        assertTrue(revocations.revoke("same-id", 1L, expiresAt));
+        assertFalse(revocations.isFamilyRevoked("same-id"));
+
+        revocations.revokeFamily("family-id", 1L, expiresAt);
+        assertTrue(revocations.isFamilyRevoked("family-id"));
+        assertFalse(revocations.isRevoked("family-id"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.SpringBootProject.AirBnB.service;
+
+import com.SpringBootProject.AirBnB.dto.HotelSearchRequest;
+import com.SpringBootProject.AirBnB.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InventoryCursorTest {
+
+    // The cursor is decoded before any query, so the service needs no repositories here
+    private final InventoryServiceImpl inventoryService = new InventoryServiceImpl(null, null, null, null, null, null, null);
+
+    private static HotelSearchRequest request(String cursor) {
+        HotelSearchRequest request = new HotelSearchRequest();
+        request.setCity("Goa");
+        request.setStartDate(LocalDate.of(2026, 1, 1));
+        request.setEndDate(LocalDate.of(2026, 1, 3));
+        request.setCursor(cursor);
+        return request;
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        assertThrows(BadRequestException.class, () -> inventoryService.searchHotelsByCursor(request("not base64!")));
+        assertThrows(BadRequestException.class, () -> inventoryService.searchHotelsByCursor(request(encode("12.5"))));
+        assertThrows(BadRequestException.class, () -> inventoryService.searchHotelsByCursor(request(encode("12.5:abc"))));
+        assertThrows(BadRequestException.class, () -> inventoryService.searchHotelsByCursor(request(encode("a:b:c"))));
+    }
+
+    @Test
+    void nonFinitePriceIsABadRequest() {
+        assertThrows(BadRequestException.class, () -> inventoryService.searchHotelsByCursor(request(encode("NaN:1"))));
+        assertThrows(BadRequestException.class, () -> inventoryService.searchHotelsByCursor(request(encode("Infinity:1"))));
+    }
+}
@@ -0,0 +1,64 @@
+package com.SpringBootProject.AirBnB.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoomAvailabilityTest {
+
+    private static RoomAvailabilityIndex.RoomAvailability room(int... free) {
+        RoomAvailabilityIndex.RoomAvailability room = new RoomAvailabilityIndex.RoomAvailability(1L, 10L, "Mumbai", free.length);
+        for (int offset = 0; offset < free.length; offset++) {
+            room.set(offset, free[offset]);
+        }
+        room.build();
+        return room;
+    }
+
+    @Test
+    void minFreeIsTheMinimumOverTheInclusiveRange() {
+        RoomAvailabilityIndex.RoomAvailability room = room(5, 3, 7, 2, 6, 4, 8);
+
+        assertEquals(2, room.minFree(0, 6));
+        assertEquals(3, room.minFree(0, 2));
+        assertEquals(7, room.minFree(2, 2));
+        assertEquals(4, room.minFree(4, 6));
+        assertEquals(8, room.minFree(6, 6));
+    }
+
+    @Test
+    void addUpdatesEveryRangeCoveringTheDay() {
+        RoomAvailabilityIndex.RoomAvailability room = room(5, 3, 7, 2, 6, 4, 8);
+
+        room.add(3, 4);
+        assertEquals(3, room.minFree(0, 6));
+        assertEquals(6, room.minFree(2, 3));
+
+        room.add(6, -8);
+        assertEquals(0, room.minFree(0, 6));
+        assertEquals(3, room.minFree(0, 5));
+    }
+
+    @Test
+    void daysOutsideTheIndexAreUnavailable() {
+        RoomAvailabilityIndex.RoomAvailability room = room(5, 3, 7);
+
+        assertEquals(RoomAvailabilityIndex.RoomAvailability.UNAVAILABLE, room.minFree(-1, 2));
+        assertEquals(RoomAvailabilityIndex.RoomAvailability.UNAVAILABLE, room.minFree(2, 1));
+        // Offsets past the end are mapped to -1 by the snapshot, add ignores them
+        room.add(-1, 10);
+        assertEquals(3, room.minFree(0, 2));
+    }
+
+    @Test
+    void daysWithoutInventoryAreUnavailable() {
+        RoomAvailabilityIndex.RoomAvailability room = new RoomAvailabilityIndex.RoomAvailability(1L, 10L, "Mumbai", 4);
+        room.set(0, 5);
+        room.set(1, 5);
+        room.set(3, 5);
+        room.build();
+
+        assertEquals(5, room.minFree(0, 1));
+        assertEquals(RoomAvailabilityIndex.RoomAvailability.UNAVAILABLE, room.minFree(0, 3));
+    }
+}
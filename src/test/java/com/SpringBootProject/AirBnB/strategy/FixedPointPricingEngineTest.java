@@ -0,0 +1,73 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+import com.SpringBootProject.AirBnB.entity.Room;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedPointPricingEngineTest {
+
+    private final FixedPointPricingEngine engine = new FixedPointPricingEngine();
+
+    private static long expectedCents(BigDecimal price) {
+        return price.setScale(FixedPointPricingEngine.CENTS_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    @Test
+    void toCentsRoundsHalfUpAtTheBoundary() {
+        assertEquals(13, FixedPointPricingEngine.toCents(125, 3));
+        assertEquals(12, FixedPointPricingEngine.toCents(124, 3));
+        assertEquals(13, FixedPointPricingEngine.toCents(125_000, 6));
+        assertEquals(12, FixedPointPricingEngine.toCents(124_999, 6));
+    }
+
+    @Test
+    void toCentsRoundsNegativesAwayFromZero() {
+        assertEquals(-13, FixedPointPricingEngine.toCents(-125, 3));
+        assertEquals(-12, FixedPointPricingEngine.toCents(-124, 3));
+        assertEquals(-1, FixedPointPricingEngine.toCents(-5, 3));
+        assertEquals(0, FixedPointPricingEngine.toCents(-4, 3));
+    }
+
+    @Test
+    void toCentsScalesUpBelowCentsScale() {
+        assertEquals(1250, FixedPointPricingEngine.toCents(125, 1));
+        assertEquals(12500, FixedPointPricingEngine.toCents(125, 0));
+        assertEquals(125, FixedPointPricingEngine.toCents(125, 2));
+    }
+
+    @Test
+    void toCentsMatchesBigDecimalRounding() {
+        for (String value : List.of("0", "0.005", "-0.005", "99.995", "-99.995", "1234.5649", "7", "1E+3")) {
+            BigDecimal price = new BigDecimal(value);
+            assertEquals(expectedCents(price), FixedPointPricingEngine.toCents(price), value);
+        }
+    }
+
+    @Test
+    void overflowingProductFallsBackToBigDecimal() {
+        Room room = new Room();
+        room.setBasePrice(new BigDecimal("99999999.99"));
+        Inventory inventory = Inventory.builder()
+                .room(room)
+                .date(LocalDate.of(2026, 1, 1))
+                .city("Goa")
+                .surgeFactor(new BigDecimal("9.123456789012345678"))
+                .bookedCount(0)
+                .totalCount(1)
+                .build();
+        PricingContext context = PricingContext.of(LocalDate.of(2026, 1, 1), HolidayDays.EMPTY,
+                new PricingRuleSet(List.of(new SurgeRule(), new SurgeRule()), Map.of()));
+        PricingRuleChain chain = context.chainFor("Goa");
+
+        assertEquals(expectedCents(chain.price(inventory, context)),
+                engine.priceCents(inventory, context, chain, new PricingPass()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HolidayDaysTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void containsTheFirstAndLastDayAndNothingOutside() {
+        LocalDate last = FIRST.plusDays(200);
+        HolidayDays holidays = HolidayDays.builder()
+                .add("Goa", FIRST)
+                .add("Goa", last)
+                .build();
+
+        assertTrue(holidays.contains("Goa", FIRST.toEpochDay()));
+        assertTrue(holidays.contains("Goa", last.toEpochDay()));
+        assertFalse(holidays.contains("Goa", FIRST.toEpochDay() - 1));
+        assertFalse(holidays.contains("Goa", last.toEpochDay() + 1));
+        assertFalse(holidays.contains("Goa", FIRST.plusDays(100).toEpochDay()));
+        assertEquals(2, holidays.size());
+    }
+
+    @Test
+    void containsDaysOnBothSidesOfAWordBoundary() {
+        HolidayDays holidays = HolidayDays.builder()
+                .add("Goa", FIRST)
+                .add("Goa", FIRST.plusDays(63))
+                .add("Goa", FIRST.plusDays(64))
+                .build();
+
+        assertTrue(holidays.contains("Goa", FIRST.plusDays(63).toEpochDay()));
+        assertTrue(holidays.contains("Goa", FIRST.plusDays(64).toEpochDay()));
+        assertFalse(holidays.contains("Goa", FIRST.plusDays(62).toEpochDay()));
+        assertFalse(holidays.contains("Goa", FIRST.plusDays(65).toEpochDay()));
+        // Past the last word of the bitset
+        assertFalse(holidays.contains("Goa", FIRST.plusDays(128).toEpochDay()));
+    }
+
+    @Test
+    void holidaysWithoutACityApplyToEveryCity() {
+        HolidayDays holidays = HolidayDays.builder()
+                .add(null, FIRST)
+                .add("Goa", FIRST.plusDays(1))
+                .build();
+
+        assertTrue(holidays.contains("Goa", FIRST.toEpochDay()));
+        assertTrue(holidays.contains("Pune", FIRST.toEpochDay()));
+        assertTrue(holidays.contains(null, FIRST.toEpochDay()));
+        assertTrue(holidays.contains("Goa", FIRST.plusDays(1).toEpochDay()));
+        assertFalse(holidays.contains("Pune", FIRST.plusDays(1).toEpochDay()));
+    }
+
+    @Test
+    void cityHolidaysMatchTheCalendar() {
+        HolidayDays holidays = HolidayDays.builder()
+                .add(null, FIRST)
+                .add("Goa", FIRST.plusDays(70))
+                .build();
+        HolidayDays.CityHolidays goa = holidays.forCity("Goa");
+        HolidayDays.CityHolidays pune = holidays.forCity("Pune");
+
+        for (long day = FIRST.toEpochDay() - 2; day <= FIRST.toEpochDay() + 130; day++) {
+            assertEquals(holidays.contains("Goa", day), goa.contains(day));
+            assertEquals(holidays.contains("Pune", day), pune.contains(day));
+        }
+    }
+
+    @Test
+    void emptyCalendarContainsNothing() {
+        assertFalse(HolidayDays.EMPTY.contains("Goa", FIRST.toEpochDay()));
+        assertFalse(HolidayDays.EMPTY.forCity("Goa").contains(FIRST.toEpochDay()));
+    }
+}
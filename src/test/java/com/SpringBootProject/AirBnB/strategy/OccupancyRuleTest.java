@@ -0,0 +1,47 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccupancyRuleTest {
+
+    private final OccupancyRule rule = new OccupancyRule(new BigDecimal("1.20"), 0.8);
+    private final PricingContext context = PricingContext.of(LocalDate.of(2026, 1, 1), HolidayDays.EMPTY,
+            new PricingRuleSet(List.of(rule), Map.of()));
+
+    private static Inventory night(int booked, int reserved, int total) {
+        return Inventory.builder()
+                .date(LocalDate.of(2026, 1, 10))
+                .bookedCount(booked)
+                .reservedCount(reserved)
+                .totalCount(total)
+                .build();
+    }
+
+    @Test
+    void appliesBelowTheThreshold() {
+        assertTrue(rule.appliesTo(night(0, 0, 10), context));
+        assertTrue(rule.appliesTo(night(7, 0, 10), context));
+    }
+
+    @Test
+    void reservedRoomsCountAsTaken() {
+        assertTrue(rule.appliesTo(night(5, 2, 10), context));
+        assertFalse(rule.appliesTo(night(5, 3, 10), context));
+        assertFalse(rule.appliesTo(night(0, 8, 10), context));
+    }
+
+    @Test
+    void stopsApplyingAtTheThreshold() {
+        assertFalse(rule.appliesTo(night(8, 0, 10), context));
+        assertFalse(rule.appliesTo(night(10, 0, 10), context));
+    }
+}
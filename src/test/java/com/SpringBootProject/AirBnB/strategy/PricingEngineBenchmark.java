@@ -0,0 +1,114 @@
+package com.SpringBootProject.AirBnB.strategy;
+
+import com.SpringBootProject.AirBnB.entity.Inventory;
+import com.SpringBootProject.AirBnB.entity.Room;
+import com.SpringBootProject.AirBnB.service.HolidayCalendar;
+import com.SpringBootProject.AirBnB.service.PricingRuleRegistry;
+import com.SpringBootProject.AirBnB.service.PricingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices a year of inventory for a few rooms with the BigDecimal rule chain and with the fixed-point engine.
+ * Both use the context and chain resolved once in setup, so only the arithmetic differs; bigDecimalChainToCents
+ * is the like-for-like baseline since the engine returns rounded cents. Setup fails if the two disagree on any
+ * row. Run with (add -prof gc to the JMH options to compare allocation per row):
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.SpringBootProject.AirBnB.strategy.PricingEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    private static final int ROOMS = 20;
+    private static final int DAYS = 365;
+    private static final String CITY = "Mumbai";
+
+    private PricingService pricingService;
+    private PricingContext context;
+    private PricingRuleChain chain;
+    private Inventory[] inventory;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        HolidayCalendar holidayCalendar = new HolidayCalendar(null);
+        holidayCalendar.replace(HolidayDays.builder()
+                .add(null, today.plusDays(3))
+                .add(CITY, today.plusDays(40))
+                .add(CITY, today.plusDays(41))
+                .build());
+
+        // Never reloaded, so it keeps the built-in surge -> urgency -> holiday chain
+        PricingRuleRegistry pricingRuleRegistry = new PricingRuleRegistry(null);
+        pricingService = new PricingService(new FixedPointPricingEngine(), holidayCalendar, pricingRuleRegistry);
+        context = pricingService.createContext();
+        chain = context.chainFor(CITY);
+
+        Random random = new Random(42);
+        inventory = new Inventory[ROOMS * DAYS];
+        for (int r = 0; r < ROOMS; r++) {
+            Room room = new Room();
+            room.setBasePrice(BigDecimal.valueOf(2_000 + random.nextInt(2_000_000), 2));
+            for (int d = 0; d < DAYS; d++) {
+                inventory[r * DAYS + d] = Inventory.builder()
+                        .room(room)
+                        .city(CITY)
+                        .date(today.plusDays(d))
+                        .surgeFactor(BigDecimal.valueOf(100 + random.nextInt(150), 2))
+                        .price(room.getBasePrice())
+                        .build();
+            }
+        }
+
+        for (Inventory row : inventory) {
+            long expected = FixedPointPricingEngine.toCents(
+                    pricingService.calculateDynamicPricing(row, context, chain).setScale(FixedPointPricingEngine.CENTS_SCALE, RoundingMode.HALF_UP));
+            if (pricingService.calculateDynamicPricingCents(row, context, chain, new PricingPass()) != expected) {
+                throw new IllegalStateException("Fixed-point price differs for " + row.getDate() + ": " + expected);
+            }
+        }
+    }
+
+    @Benchmark
+    public void bigDecimalChain(Blackhole blackhole) {
+        for (Inventory row : inventory) {
+            blackhole.consume(pricingService.calculateDynamicPricing(row, context, chain));
+        }
+    }
+
+    @Benchmark
+    public void bigDecimalChainToCents(Blackhole blackhole) {
+        for (Inventory row : inventory) {
+            blackhole.consume(FixedPointPricingEngine.toCents(pricingService.calculateDynamicPricing(row, context, chain)
+                    .setScale(FixedPointPricingEngine.CENTS_SCALE, RoundingMode.HALF_UP)));
+        }
+    }
+
+    @Benchmark
+    public void fixedPointEngine(Blackhole blackhole) {
+        // One pass per run, like a pricing worker does per hotel
+        PricingPass pass = new PricingPass();
+        for (Inventory row : inventory) {
+            blackhole.consume(pricingService.calculateDynamicPricingCents(row, context, chain, pass));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PricingEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}